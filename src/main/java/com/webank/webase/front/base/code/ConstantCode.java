@@ -67,6 +67,17 @@ public class ConstantCode {
     public static final RetCode USER_NAME_NULL = RetCode.mark(201037, "user name is null");
     public static final RetCode USER_NAME_EXISTS = RetCode.mark(201038, "user name already exists");
     public static final RetCode PRIVATEKEY_EXISTS = RetCode.mark(201039, "private key already exists");
+    public static final RetCode TRANS_RECEIPT_TIMEOUT = RetCode.mark(201040, "wait for transaction receipt timeout");
+    public static final RetCode TRANS_BATCH_SIZE_EXCEED = RetCode.mark(201041, "transaction batch size exceeds the limit");
+    public static final String PARAM_FAIL_TRANS_LIST_IS_EMPTY = "{\"code\":201042,\"message\":\"transList cannot be empty\"}";
+    public static final RetCode TRANS_HASH_NOT_EXIST = RetCode.mark(201043, "transaction hash not exist or expired");
+    public static final RetCode TRANS_PENDING_EXCEED = RetCode.mark(201044, "too many pending transactions");
+    public static final RetCode SIGN_QUEUE_FULL = RetCode.mark(201045, "sign request queue is full");
+    public static final RetCode BLOCK_RANGE_INVALID = RetCode.mark(201046, "block range is invalid");
+    public static final RetCode EVENT_SUBSCRIPTION_EXCEED = RetCode.mark(201047, "event subscriptions exceed the limit");
+    public static final RetCode CALLBACK_URL_INVALID = RetCode.mark(201048, "callbackUrl is not http(s) or its host is not allowed");
+    public static final RetCode BLOCK_NOT_FOUND = RetCode.mark(201049, "block not found");
+    public static final RetCode EVENT_QUEUE_FULL = RetCode.mark(201050, "events of subscription are not read in time");
 
     /* system error */
     public static final RetCode SYSTEM_ERROR = RetCode.mark(101001, "system error");
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014-2019  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.base.config;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.util.AbiUtil;
+import javax.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * size the static parsed abi cache of AbiUtil from constants at startup.
+ */
+@Configuration
+public class AbiCacheConfig {
+
+    @Autowired
+    private Constants constants;
+
+    @PostConstruct
+    public void init() {
+        AbiUtil.initAbiCache(constants.getAbiCacheSize());
+    }
+}
@@ -15,19 +15,35 @@
  */
 package com.webank.webase.front.base.config;
 
+import com.webank.webase.front.base.properties.Constants;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
- * Restful request template configuration
+ * Restful request template configuration.
+ * all outbound http of front shares one pool of keep-alive connections
  */
 @Data
 @Configuration
 public class RestTemplateConfig {
+
+    @Autowired
+    private Constants constants;
+
     @Bean
     public RestTemplate restTemplate(ClientHttpRequestFactory factory) {
         return new RestTemplate(factory);
@@ -39,10 +55,50 @@ public class RestTemplateConfig {
      * @return
      */
     @Bean
-    public ClientHttpRequestFactory simpleClientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setReadTimeout(20000);
-        factory.setConnectTimeout(5000);
-        return factory;
+    public ClientHttpRequestFactory httpRequestFactory(CloseableHttpClient httpClient) {
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * pool of connections, key servers may use up to signConcurrency connections each.
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager(constants.getHttpConnectionTtl(),
+                TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(constants.getHttpMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(constants.getHttpMaxPerRoute());
+        int keyServerMaxPerRoute =
+            Math.max(constants.getHttpMaxPerRoute(), constants.getSignConcurrency());
+        for (String ipPort : StringUtils.split(constants.getKeyServer(), ",")) {
+            HttpHost host = HttpHost.create(ipPort.trim());
+            connectionManager.setMaxPerRoute(new HttpRoute(host), keyServerMaxPerRoute);
+        }
+        return connectionManager;
+    }
+
+    /**
+     * httpClient with keep-alive and idle eviction.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(constants.getHttpConnectTimeout())
+            .setSocketTimeout(constants.getHttpReadTimeout())
+            .setConnectionRequestTimeout(constants.getHttpConnectTimeout())
+            .build();
+        long keepAliveMillis = TimeUnit.SECONDS.toMillis(constants.getHttpKeepAlive());
+        return HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy((response, context) -> {
+                long keepAlive =
+                    DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return keepAlive > 0 ? Math.min(keepAlive, keepAliveMillis) : keepAliveMillis;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(constants.getHttpIdleTimeout(), TimeUnit.SECONDS)
+            .build();
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014-2019  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.base.config;
+
+import com.webank.webase.front.base.properties.Constants;
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * thread pools of front's own tasks.
+ * separated from sdkThreadPool which is used by web3sdk's channel service
+ */
+@Configuration
+public class ThreadPoolConfig {
+
+    @Autowired
+    private Constants constants;
+
+    /**
+     * pool to encode and sign transactions.
+     * run in caller's thread when the queue is full
+     */
+    @Bean
+    public ThreadPoolTaskExecutor transExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(constants.getTransPoolSize());
+        executor.setMaxPoolSize(constants.getTransPoolSize());
+        executor.setQueueCapacity(constants.getTransBatchMaxSize());
+        executor.setRejectedExecutionHandler(new CallerRunsPolicy());
+        executor.setThreadNamePrefix("transExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * pool to post receipts to callbackUrl, separated from transExecutor
+     * so slow callbacks don't hold transaction threads. a callback is dropped when full
+     */
+    @Bean
+    public ThreadPoolTaskExecutor callbackExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(constants.getCallbackPoolSize());
+        executor.setMaxPoolSize(constants.getCallbackPoolSize());
+        executor.setQueueCapacity(constants.getCallbackQueueSize());
+        executor.setThreadNamePrefix("callbackExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * pool to request key servers in parallel.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor keyServerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new CallerRunsPolicy());
+        executor.setThreadNamePrefix("keyServerExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * single thread to refresh node metadata, a run is skipped while the last one is running.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor metadataExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("metadataExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * single thread to run the indexer, a run is skipped while the last one is running.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor indexerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("indexerExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * pool to write events to sse clients, a subscription is drained by one task at a time,
+     * so a slow client holds one thread but not the dispatch of others.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor eventSendExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(constants.getEventSendPoolSize());
+        executor.setMaxPoolSize(constants.getEventSendPoolSize());
+        executor.setQueueCapacity(constants.getEventSubscriptionMax());
+        executor.setThreadNamePrefix("eventSendExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * single thread to dispatch subscribed events, a run is skipped while the last one is running.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor eventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("eventExecutor-");
+        executor.initialize();
+        return executor;
+    }
+}
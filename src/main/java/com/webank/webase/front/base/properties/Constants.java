@@ -16,6 +16,8 @@
 package com.webank.webase.front.base.properties;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
@@ -60,8 +62,49 @@ public class Constants {
     private String nodeDir = "";
     private String keyServer = "127.0.0.1:8080";
     private int transMaxWait = 30;
+    private int transBatchMaxSize = 1000;
+    private int transPoolSize = 16;
+    private int receiptCacheSize = 10000;
+    private int receiptKeepTime = 300;
+    // host or host:port allowed as callbackUrl of async transactions, none by default
+    private List<String> callbackHosts = new ArrayList<>();
+    private int callbackPoolSize = 4;
+    private int callbackQueueSize = 1000;
+    private int credentialsCacheSize = 1000;
+    private int credentialsCacheTtl = 600;
+    private int abiCacheSize = 1000;
+    private int signQueueSize = 10000;
+    private int signConcurrency = 32;
+    private int httpMaxTotal = 200;
+    private int httpMaxPerRoute = 50;
+    private int httpConnectTimeout = 5000;
+    private int httpReadTimeout = 20000;
+    private int httpKeepAlive = 30;
+    private int httpIdleTimeout = 60;
+    private int httpConnectionTtl = 300;
+    private int blockCacheSize = 2000;
+    private long blockCacheBytes = 64 * 1024 * 1024;
+    private int transCacheSize = 100000;
+    private int transNegativeTtl = 1000;
+    private int blockStreamPrefetch = 16;
+    private int blockStreamMaxReceipts = 256;
+    private boolean indexerEnabled = false;
+    private int indexerBatchSize = 100;
+    private long indexerStartBlock = -1;
+    private int eventSubscriptionMax = 100;
+    private long eventStreamTimeout = 3600000;
+    private int eventQueueSize = 1000;
+    private int eventSendPoolSize = 8;
     private String monitorDisk = "/";
     private boolean monitorEnabled = true;
+    private int monitorSampleTimeout = 3000;
+    private String timeSeriesPath = "./timeseries";
+    private int timeSeriesRawRetention = 7;
+    private int timeSeriesRollupRetention = 30;
+    private int chartMaxPoints = 2000;
+    private int sampleQueueSize = 10000;
+    private int sampleBatchSize = 200;
+    private int sampleFlushInterval = 1000;
     private String aesKey = "4d5dFr4fG446GBde";
     private String nodePath = "/fisco/nodes/127.0.0.1/node0";
 
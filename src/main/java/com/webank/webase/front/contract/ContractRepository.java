@@ -29,4 +29,7 @@ public interface ContractRepository extends CrudRepository<Contract, Long>,
     List<Contract> findByGroupIdAndContractPath(int groupId, String contractPath);
 
     Contract findByGroupIdAndId(int groupId, Long contractId);
+
+    List<Contract> findByGroupIdAndContractAddressIgnoreCase(int groupId,
+        String contractAddress);
 }
@@ -80,6 +80,7 @@ import com.webank.webase.front.transaction.TransService;
 import com.webank.webase.front.util.AbiUtil;
 import com.webank.webase.front.util.CommonUtils;
 import com.webank.webase.front.util.ContractAbiUtil;
+import com.webank.webase.front.util.FunctionDescriptor;
 import com.webank.webase.front.web3api.Web3ApiService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -243,7 +244,6 @@ public class ContractService {
      */
     public String deployWithSign(ReqDeployWithSign req) throws Exception {
         int groupId = req.getGroupId();
-        String contractAbi = JSON.toJSONString(req.getContractAbi());
         String contractBin = req.getContractBin();
         List<Object> params = req.getFuncParam();
 
@@ -254,7 +254,7 @@ public class ContractService {
         }
 
         // check parameters
-        AbiDefinition abiDefinition = AbiUtil.getAbiDefinition(contractAbi);
+        AbiDefinition abiDefinition = AbiUtil.getParsedAbi(req.getContractAbi()).getConstructor();
         List<String> funcInputTypes = AbiUtil.getFuncInputType(abiDefinition);
         if (funcInputTypes.size() != params.size()) {
             log.warn("deployWithSign fail. funcInputTypes:{}, params:{}", funcInputTypes, params);
@@ -275,6 +275,11 @@ public class ContractService {
             throw new FrontException(ConstantCode.DATA_SIGN_ERROR);
         }
         // send transaction
+        if (req.isAsync()) {
+            String transHash = transService.sendMessageAsync(web3j, signMsg, req.getCallbackUrl());
+            log.info("deployWithSign async. transHash:{}", transHash);
+            return transHash;
+        }
         final CompletableFuture<TransactionReceipt> transFuture = new CompletableFuture<>();
         transService.sendMessage(web3j, signMsg, transFuture);
         TransactionReceipt receipt = transFuture.get(constants.getTransMaxWait(), TimeUnit.SECONDS);
@@ -291,11 +296,12 @@ public class ContractService {
         String encodedConstructor = "";
         String functionName = contractName;
         // input handle
-        List<String> funcInputTypes =
-                ContractAbiUtil.getFuncInputType(contractName, functionName, version);
+        FunctionDescriptor constructor =
+                ContractAbiUtil.getFunction(contractName, version, functionName);
+        List<String> funcInputTypes = constructor == null ? null : constructor.getInputTypes();
         if (funcInputTypes != null && funcInputTypes.size() > 0) {
             if (funcInputTypes.size() == params.size()) {
-                List<Type> finalInputs = AbiUtil.inputFormat(funcInputTypes, params);
+                List<Type> finalInputs = constructor.getCodec().encodeInputs(params);
                 encodedConstructor = FunctionEncoder.encodeConstructor(finalInputs);
                 log.info("deploy encodedConstructor:{}", encodedConstructor);
             } else {
@@ -312,7 +318,8 @@ public class ContractService {
         String encodedConstructor = "";
         String functionName = contractName;
         // input handle
-        List<String> funcInputTypes = versionEvent.getFuncInputs().get(functionName);
+        FunctionDescriptor constructor = versionEvent.getFunction(functionName);
+        List<String> funcInputTypes = constructor == null ? null : constructor.getInputTypes();
 
         if (funcInputTypes != null && funcInputTypes.size() > 0) {
             if (funcInputTypes.size() == params.size()) {
@@ -35,4 +35,9 @@ public class ReqDeployWithSign {
     @NotEmpty(message = ConstantCode.PARAM_FAIL_ABIINFO_IS_EMPTY)
     private List<Object> contractAbi;
     private List<Object> funcParam = new ArrayList<>();
+    /**
+     * return transHash without waiting for receipt.
+     */
+    private boolean async = false;
+    private String callbackUrl;
 }
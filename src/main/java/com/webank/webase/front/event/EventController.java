@@ -0,0 +1,52 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.event;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * EventController.
+ * stream decoded events of new blocks as server-sent events.
+ */
+@Api(value = "/event", tags = "event stream interface")
+@RestController
+@RequestMapping(value = "/{groupId}/event")
+public class EventController {
+
+    @Autowired
+    private EventStreamService eventStreamService;
+
+    @ApiOperation(value = "streamEvents",
+            notes = "Subscribe events of contract from the next block, as text/event-stream")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "contractAddress", value = "contract address", required = true, dataType = "String"),
+        @ApiImplicitParam(name = "topics", value = "topic0 of events, all events if absent", dataType = "String", allowMultiple = true)})
+    @GetMapping("/stream")
+    public SseEmitter streamEvents(@PathVariable int groupId,
+            @RequestParam String contractAddress,
+            @RequestParam(required = false) List<String> topics) {
+        return eventStreamService.subscribe(groupId, contractAddress, topics);
+    }
+}
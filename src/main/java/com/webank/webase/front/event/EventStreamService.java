@@ -0,0 +1,397 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.event;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.contract.ContractRepository;
+import com.webank.webase.front.contract.entity.Contract;
+import com.webank.webase.front.event.entity.DecodedEvent;
+import com.webank.webase.front.metrics.MetricsSource;
+import com.webank.webase.front.util.AbiUtil;
+import com.webank.webase.front.util.EventDecoder;
+import com.webank.webase.front.util.ParsedAbi;
+import com.webank.webase.front.web3api.BlockHeightTracker;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * EventStreamService.
+ * push decoded events of subscribed contracts to sse clients.
+ * each group keeps a cursor from the head at its first subscription,
+ * new blocks are read once with their receipts and logs are dispatched by address and topic0.
+ */
+@Slf4j
+@Service
+public class EventStreamService implements MetricsSource {
+
+    private static final String EVENT_NAME = "event";
+
+    @Autowired
+    private Map<Integer, Web3j> web3jMap;
+    @Autowired
+    private Constants constants;
+    @Autowired
+    private BlockHeightTracker blockHeightTracker;
+    @Autowired
+    private ContractRepository contractRepository;
+    @Autowired
+    @Qualifier("eventExecutor")
+    private ThreadPoolTaskExecutor eventExecutor;
+    @Autowired
+    @Qualifier("eventSendExecutor")
+    private ThreadPoolTaskExecutor eventSendExecutor;
+
+    private final Map<Integer, List<EventSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> cursors = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong blockCount = new AtomicLong();
+    private final AtomicLong eventCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+
+    /**
+     * subscribe events of contract.
+     * events are decoded by the abi of contract saved in front, or sent raw if absent
+     *
+     * @param topics topic0 of events, all events if empty
+     */
+    public SseEmitter subscribe(int groupId, String contractAddress, List<String> topics) {
+        if (!web3jMap.containsKey(groupId)) {
+            throw new FrontException(ConstantCode.GROUPID_NOT_EXIST);
+        }
+        Set<String> topicSet = new HashSet<>();
+        if (topics != null) {
+            for (String topic : topics) {
+                if (StringUtils.isNotBlank(topic)) {
+                    topicSet.add(topic.trim().toLowerCase());
+                }
+            }
+        }
+        String address = contractAddress.trim().toLowerCase();
+        SseEmitter emitter = new SseEmitter(constants.getEventStreamTimeout());
+        EventSubscription subscription = new EventSubscription(UUID.randomUUID().toString(),
+            groupId, address, Collections.unmodifiableSet(topicSet),
+            findParsedAbi(groupId, address), emitter, constants.getEventQueueSize());
+        synchronized (subscriptions) {
+            int total = 0;
+            for (List<EventSubscription> list : subscriptions.values()) {
+                total += list.size();
+            }
+            if (total >= constants.getEventSubscriptionMax()) {
+                throw new FrontException(ConstantCode.EVENT_SUBSCRIPTION_EXCEED);
+            }
+            cursors.computeIfAbsent(groupId,
+                k -> blockHeightTracker.getHeight(groupId).longValue());
+            subscriptions.computeIfAbsent(groupId, k -> new CopyOnWriteArrayList<>())
+                .add(subscription);
+        }
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        log.info("subscribe events. id:{} groupId:{} contract:{} topics:{}",
+            subscription.getId(), groupId, address, topicSet);
+        return emitter;
+    }
+
+    private ParsedAbi findParsedAbi(int groupId, String contractAddress) {
+        List<Contract> contracts =
+            contractRepository.findByGroupIdAndContractAddressIgnoreCase(groupId, contractAddress);
+        for (Contract contract : contracts) {
+            if (StringUtils.isNotBlank(contract.getContractAbi())) {
+                return AbiUtil.getParsedAbi(contract.getContractAbi());
+            }
+        }
+        return null;
+    }
+
+    private void unsubscribe(EventSubscription subscription) {
+        synchronized (subscriptions) {
+            List<EventSubscription> list = subscriptions.get(subscription.getGroupId());
+            if (list == null || !list.remove(subscription)) {
+                return;
+            }
+            // start from the head again at next subscription
+            if (list.isEmpty()) {
+                subscriptions.remove(subscription.getGroupId());
+                cursors.remove(subscription.getGroupId());
+            }
+        }
+        log.info("unsubscribe events. id:{}", subscription.getId());
+    }
+
+    /**
+     * start a dispatch run on eventExecutor if there are subscriptions
+     * and the last run has finished.
+     */
+    @Scheduled(cron = "* * * * * ?")
+    public void poll() {
+        if (subscriptions.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            eventExecutor.execute(() -> {
+                try {
+                    for (Integer groupId : subscriptions.keySet()) {
+                        try {
+                            dispatchGroup(groupId);
+                        } catch (Exception e) {
+                            log.warn("dispatchGroup fail. groupId:{}", groupId, e);
+                        }
+                    }
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.set(false);
+        }
+    }
+
+    /**
+     * dispatch events of blocks after cursor to the latest block, block by block.
+     * events of a block are dispatched after all its receipts arrive,
+     * a block failed to fetch is retried in next run
+     */
+    void dispatchGroup(int groupId) throws Exception {
+        Web3j web3j = web3jMap.get(groupId);
+        Long cursor = cursors.get(groupId);
+        List<EventSubscription> list = subscriptions.get(groupId);
+        if (web3j == null || cursor == null || list == null) {
+            return;
+        }
+        Map<String, List<EventSubscription>> addressMap = new HashMap<>();
+        for (EventSubscription subscription : list) {
+            addressMap.computeIfAbsent(subscription.getContractAddress(),
+                k -> new ArrayList<>()).add(subscription);
+        }
+        long latest = blockHeightTracker.getHeight(groupId).longValue();
+        for (long number = cursor + 1; number <= latest; number++) {
+            BcosBlock.Block block = web3j
+                .getBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), false)
+                .sendAsync().get(constants.getTransMaxWait(), TimeUnit.SECONDS).getBlock();
+            List<CompletableFuture<TransactionReceipt>> receiptFutures = new ArrayList<>();
+            // web3sdk returns raw TransactionResult
+            @SuppressWarnings("rawtypes")
+            List<TransactionResult> transactions = block.getTransactions();
+            for (int i = 0; transactions != null && i < transactions.size(); i++) {
+                String transHash = (String) transactions.get(i).get();
+                receiptFutures.add(web3j.getTransactionReceipt(transHash).sendAsync()
+                    .thenApply(r -> r.getTransactionReceipt().orElse(null)));
+            }
+            // all receipts first, so that a block is dispatched once or not at all
+            CompletableFuture.allOf(receiptFutures.toArray(new CompletableFuture<?>[0]))
+                .get(constants.getTransMaxWait(), TimeUnit.SECONDS);
+            for (CompletableFuture<TransactionReceipt> future : receiptFutures) {
+                TransactionReceipt receipt = future.join();
+                if (receipt != null) {
+                    dispatchReceipt(groupId, block, receipt, addressMap);
+                }
+            }
+            // cursor is dropped when the last subscription of group leaves
+            if (cursors.replace(groupId, number) == null) {
+                return;
+            }
+            blockCount.incrementAndGet();
+        }
+    }
+
+    private void dispatchReceipt(int groupId, BcosBlock.Block block, TransactionReceipt receipt,
+        Map<String, List<EventSubscription>> addressMap) {
+        List<Log> logs = receipt.getLogs();
+        for (int i = 0; logs != null && i < logs.size(); i++) {
+            Log logInfo = logs.get(i);
+            if (logInfo.getAddress() == null) {
+                continue;
+            }
+            List<EventSubscription> matched = addressMap.get(logInfo.getAddress().toLowerCase());
+            if (matched == null) {
+                continue;
+            }
+            // subscriptions of the same contract mostly share one parsed abi
+            Map<ParsedAbi, DecodedEvent> decodedMap = new IdentityHashMap<>();
+            for (EventSubscription subscription : matched) {
+                if (!subscription.matches(logInfo)) {
+                    continue;
+                }
+                DecodedEvent event = decodedMap.get(subscription.getParsedAbi());
+                if (event == null) {
+                    event = decode(groupId, block, receipt, logInfo, i,
+                        subscription.getParsedAbi());
+                    decodedMap.put(subscription.getParsedAbi(), event);
+                }
+                send(subscription, event);
+            }
+        }
+    }
+
+    private DecodedEvent decode(int groupId, BcosBlock.Block block, TransactionReceipt receipt,
+        Log logInfo, int position, ParsedAbi parsedAbi) {
+        DecodedEvent event = new DecodedEvent();
+        event.setGroupId(groupId);
+        event.setContractAddress(logInfo.getAddress());
+        event.setBlockNumber(block.getNumber());
+        event.setBlockHash(block.getHash());
+        event.setTransHash(receipt.getTransactionHash());
+        event.setTransIndex(receipt.getTransactionIndex());
+        event.setLogIndex(logInfo.getLogIndex() != null ? logInfo.getLogIndex()
+            : BigInteger.valueOf(position));
+        List<String> topics = logInfo.getTopics();
+        String topic0 = topics == null || topics.isEmpty() ? null : topics.get(0);
+        event.setTopic0(topic0);
+        EventDecoder decoder = parsedAbi == null ? null : parsedAbi.getEventDecoder(topic0);
+        if (decoder != null) {
+            try {
+                List<Object> values = decoder.decode(logInfo);
+                if (values != null) {
+                    event.setEventName(decoder.getName());
+                    event.setParamNames(decoder.getParamNames());
+                    event.setValues(values);
+                    return event;
+                }
+            } catch (FrontException e) {
+                log.warn("decode event fail. transHash:{} topic0:{} msg:{}",
+                    receipt.getTransactionHash(), topic0, e.getMessage());
+            }
+        }
+        event.setTopics(topics);
+        event.setData(logInfo.getData());
+        return event;
+    }
+
+    /**
+     * queue event of subscription, its client is written on eventSendExecutor.
+     * a subscription whose queue is full is closed with an error.
+     */
+    private void send(EventSubscription subscription, DecodedEvent event) {
+        if (subscription.isClosed()) {
+            return;
+        }
+        if (!subscription.getQueue().offer(event)) {
+            overflowCount.incrementAndGet();
+            log.info("event queue full, unsubscribe. id:{}", subscription.getId());
+            close(subscription, new FrontException(ConstantCode.EVENT_QUEUE_FULL));
+            return;
+        }
+        scheduleDrain(subscription);
+    }
+
+    private void scheduleDrain(EventSubscription subscription) {
+        if (!subscription.getDraining().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            eventSendExecutor.execute(() -> drain(subscription));
+        } catch (TaskRejectedException e) {
+            // queued events are drained at next event
+            subscription.getDraining().set(false);
+        }
+    }
+
+    private void drain(EventSubscription subscription) {
+        try {
+            DecodedEvent event;
+            while (!subscription.isClosed()
+                && (event = subscription.getQueue().poll()) != null) {
+                try {
+                    subscription.getEmitter().send(SseEmitter.event()
+                        .id(event.getBlockNumber() + ":" + event.getTransIndex() + ":"
+                            + event.getLogIndex())
+                        .name(EVENT_NAME)
+                        .data(event, MediaType.APPLICATION_JSON));
+                    eventCount.incrementAndGet();
+                } catch (Exception e) {
+                    log.info("send event fail, unsubscribe. id:{} msg:{}", subscription.getId(),
+                        e.getMessage());
+                    close(subscription, e);
+                }
+            }
+        } finally {
+            subscription.getDraining().set(false);
+        }
+        // an event queued after the last poll and before draining is reset
+        if (!subscription.isClosed() && !subscription.getQueue().isEmpty()) {
+            scheduleDrain(subscription);
+        }
+    }
+
+    private void close(EventSubscription subscription, Exception e) {
+        if (!subscription.close()) {
+            return;
+        }
+        unsubscribe(subscription);
+        subscription.getQueue().clear();
+        subscription.getEmitter().completeWithError(e);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (List<EventSubscription> list : subscriptions.values()) {
+            for (EventSubscription subscription : list) {
+                subscription.getEmitter().complete();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "eventStream";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        int total = 0;
+        for (List<EventSubscription> list : subscriptions.values()) {
+            total += list.size();
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("subscriptions", total);
+        metrics.put("cursors", new HashMap<>(cursors));
+        metrics.put("blocks", blockCount.get());
+        metrics.put("events", eventCount.get());
+        metrics.put("overflows", overflowCount.get());
+        return metrics;
+    }
+}
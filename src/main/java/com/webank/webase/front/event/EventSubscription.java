@@ -0,0 +1,79 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.event;
+
+import com.webank.webase.front.event.entity.DecodedEvent;
+import com.webank.webase.front.util.ParsedAbi;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Getter;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * EventSubscription.
+ * logs of one contract, all events or only events whose topic0 is in topics.
+ * events wait in a bounded queue until written to the client.
+ */
+@Getter
+class EventSubscription {
+
+    private final String id;
+    private final int groupId;
+    private final String contractAddress;
+    private final Set<String> topics;
+    private final ParsedAbi parsedAbi;
+    private final SseEmitter emitter;
+    private final BlockingQueue<DecodedEvent> queue;
+    // a drain task is submitted or running
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    EventSubscription(String id, int groupId, String contractAddress, Set<String> topics,
+        ParsedAbi parsedAbi, SseEmitter emitter, int queueSize) {
+        this.id = id;
+        this.groupId = groupId;
+        this.contractAddress = contractAddress;
+        this.topics = topics;
+        this.parsedAbi = parsedAbi;
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    /**
+     * mark closed.
+     *
+     * @return true if not closed before
+     */
+    boolean close() {
+        return closed.compareAndSet(false, true);
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * address is matched by caller, only topic0 is checked.
+     */
+    boolean matches(Log log) {
+        if (topics.isEmpty()) {
+            return true;
+        }
+        return log.getTopics() != null && !log.getTopics().isEmpty()
+            && topics.contains(log.getTopics().get(0).toLowerCase());
+    }
+}
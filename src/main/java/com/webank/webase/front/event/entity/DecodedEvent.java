@@ -0,0 +1,43 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.event.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import java.math.BigInteger;
+import java.util.List;
+import lombok.Data;
+
+/**
+ * one event of event stream.
+ * topics and data are only kept if the event is not decodable by contract abi
+ */
+@Data
+@JsonInclude(Include.NON_NULL)
+public class DecodedEvent {
+
+    private Integer groupId;
+    private String contractAddress;
+    private BigInteger blockNumber;
+    private String blockHash;
+    private String transHash;
+    private BigInteger transIndex;
+    private BigInteger logIndex;
+    private String topic0;
+    private String eventName;
+    private List<String> paramNames;
+    private List<Object> values;
+    private List<String> topics;
+    private String data;
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.indexer;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.response.BasePageResponse;
+import com.webank.webase.front.indexer.entity.BlockHeader;
+import com.webank.webase.front.indexer.entity.IndexCheckpoint;
+import com.webank.webase.front.indexer.entity.TransIndex;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiImplicitParam;
+import io.swagger.annotations.ApiImplicitParams;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * IndexerController.
+ * query local index of blocks and transactions.
+ */
+@Api(value = "/index", tags = "local chain index interface")
+@RestController
+@RequestMapping(value = "/{groupId}/index")
+public class IndexerController {
+
+    @Autowired
+    private IndexerService indexerService;
+
+    @ApiOperation(value = "queryTrans", notes = "query indexed transactions, newest first")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "address", value = "from or to address", dataType = "String"),
+        @ApiImplicitParam(name = "contract", value = "called or deployed contract", dataType = "String"),
+        @ApiImplicitParam(name = "methodId", value = "method id, like 0xa9059cbb", dataType = "String"),
+        @ApiImplicitParam(name = "pageNumber", value = "page number, start from 1", dataType = "int"),
+        @ApiImplicitParam(name = "pageSize", value = "page size", dataType = "int")})
+    @GetMapping("/transactions")
+    public BasePageResponse queryTrans(@PathVariable int groupId,
+            @RequestParam(required = false) String address,
+            @RequestParam(required = false) String contract,
+            @RequestParam(required = false) String methodId,
+            @RequestParam(defaultValue = "1") int pageNumber,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        Page<TransIndex> page =
+            indexerService.queryTrans(groupId, address, contract, methodId, pageNumber, pageSize);
+        return new BasePageResponse(ConstantCode.RET_SUCCESS, page.getContent(),
+            page.getTotalElements());
+    }
+
+    @ApiOperation(value = "queryBlocks", notes = "query indexed block headers, newest first")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "pageNumber", value = "page number, start from 1", dataType = "int"),
+        @ApiImplicitParam(name = "pageSize", value = "page size", dataType = "int")})
+    @GetMapping("/blocks")
+    public BasePageResponse queryBlocks(@PathVariable int groupId,
+            @RequestParam(defaultValue = "1") int pageNumber,
+            @RequestParam(defaultValue = "10") int pageSize) {
+        Page<BlockHeader> page = indexerService.queryBlocks(groupId, pageNumber, pageSize);
+        return new BasePageResponse(ConstantCode.RET_SUCCESS, page.getContent(),
+            page.getTotalElements());
+    }
+
+    @ApiOperation(value = "getCheckpoint", notes = "last indexed block of group")
+    @GetMapping("/checkpoint")
+    public IndexCheckpoint getCheckpoint(@PathVariable int groupId) {
+        return indexerService.getCheckpoint(groupId);
+    }
+}
@@ -0,0 +1,289 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.indexer;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.indexer.entity.BlockHeader;
+import com.webank.webase.front.indexer.entity.IndexCheckpoint;
+import com.webank.webase.front.indexer.entity.TransIndex;
+import com.webank.webase.front.web3api.BlockHeightTracker;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.persistence.criteria.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Transaction;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+/**
+ * IndexerService.
+ * index blocks of every group incrementally into h2,
+ * headers, transaction hashes, from/to addresses and method ids,
+ * and query transactions by address, contract and method id.
+ */
+@Slf4j
+@Service
+public class IndexerService {
+
+    private static final String EMPTY_ADDRESS = "0x0000000000000000000000000000000000000000";
+    private static final int METHOD_ID_LENGTH = 10;
+
+    @Autowired
+    private Map<Integer, Web3j> web3jMap;
+    @Autowired
+    private Constants constants;
+    @Autowired
+    private BlockHeightTracker blockHeightTracker;
+    @Autowired
+    private IndexerStore indexerStore;
+    @Autowired
+    private BlockHeaderRepository blockHeaderRepository;
+    @Autowired
+    private TransIndexRepository transIndexRepository;
+    @Autowired
+    private IndexCheckpointRepository indexCheckpointRepository;
+    @Autowired
+    @Qualifier("indexerExecutor")
+    private ThreadPoolTaskExecutor indexerExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * start a sync run on indexerExecutor if the last one has finished,
+     * so that a long backfill does not hold the scheduler thread.
+     */
+    @Scheduled(cron = "0/5 * * * * ?")
+    public void syncIndex() {
+        if (!constants.isIndexerEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            indexerExecutor.execute(() -> {
+                try {
+                    syncAllGroups();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            running.set(false);
+        }
+    }
+
+    /**
+     * index one batch of each group in turn until all groups catch up.
+     */
+    public void syncAllGroups() {
+        boolean progressed = true;
+        while (progressed) {
+            progressed = false;
+            for (Integer groupId : web3jMap.keySet()) {
+                try {
+                    progressed |= syncBatch(groupId) > 0;
+                } catch (Exception e) {
+                    log.warn("syncBatch fail. groupId:{}", groupId, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * index next batch of group, after its checkpoint,
+     * or from indexerStartBlock (the latest block if negative) when there is none.
+     *
+     * @return count of indexed blocks
+     */
+    public int syncBatch(int groupId) throws Exception {
+        Web3j web3j = web3jMap.get(groupId);
+        if (web3j == null) {
+            return 0;
+        }
+        IndexCheckpoint checkpoint = indexCheckpointRepository.findOne(groupId);
+        long latest = blockHeightTracker.getHeight(groupId).longValue();
+        long next;
+        if (checkpoint != null) {
+            next = checkpoint.getBlockNumber() + 1;
+        } else if (constants.getIndexerStartBlock() < 0) {
+            // without checkpoint, start from the latest block instead of genesis
+            next = latest;
+        } else {
+            next = constants.getIndexerStartBlock();
+        }
+        if (next > latest) {
+            return 0;
+        }
+        long end = Math.min(latest, next + constants.getIndexerBatchSize() - 1);
+        List<CompletableFuture<BcosBlock.Block>> blockFutures = new ArrayList<>();
+        for (long number = next; number <= end; number++) {
+            blockFutures.add(web3j
+                .getBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(number)), true)
+                .sendAsync().thenApply(BcosBlock::getBlock));
+        }
+
+        List<BlockHeader> headers = new ArrayList<>(blockFutures.size());
+        List<TransIndex> transList = new ArrayList<>();
+        // address of created contract is only in receipt
+        Map<TransIndex, CompletableFuture<TransactionReceipt>> deployMap =
+            new IdentityHashMap<>();
+        String parentHash = checkpoint == null ? null : checkpoint.getBlockHash();
+        for (CompletableFuture<BcosBlock.Block> future : blockFutures) {
+            BcosBlock.Block block = future.get(constants.getTransMaxWait(), TimeUnit.SECONDS);
+            if (parentHash != null && !parentHash.equals(block.getParentHash())) {
+                log.warn("syncBatch parentHash not match. groupId:{} blockNumber:{}", groupId,
+                    block.getNumber());
+            }
+            parentHash = block.getHash();
+            headers.add(toBlockHeader(groupId, block));
+            // web3sdk returns raw TransactionResult
+            @SuppressWarnings("rawtypes")
+            List<TransactionResult> transactions = block.getTransactions();
+            for (int i = 0; transactions != null && i < transactions.size(); i++) {
+                Transaction transaction = (Transaction) transactions.get(i).get();
+                TransIndex transIndex = toTransIndex(groupId, block, i, transaction);
+                if (transIndex.getToAddress() == null) {
+                    deployMap.put(transIndex, web3j.getTransactionReceipt(transaction.getHash())
+                        .sendAsync().thenApply(r -> r.getTransactionReceipt().orElse(null)));
+                }
+                transList.add(transIndex);
+            }
+        }
+        for (Map.Entry<TransIndex, CompletableFuture<TransactionReceipt>> entry
+            : deployMap.entrySet()) {
+            TransactionReceipt receipt =
+                entry.getValue().get(constants.getTransMaxWait(), TimeUnit.SECONDS);
+            if (receipt != null) {
+                entry.getKey().setContractAddress(lower(receipt.getContractAddress()));
+            }
+        }
+
+        IndexCheckpoint newCheckpoint = new IndexCheckpoint();
+        newCheckpoint.setGroupId(groupId);
+        newCheckpoint.setBlockNumber(end);
+        newCheckpoint.setBlockHash(parentHash);
+        newCheckpoint.setUpdateTime(System.currentTimeMillis());
+        indexerStore.save(headers, transList, newCheckpoint);
+        log.debug("syncBatch groupId:{} from:{} to:{} trans:{}", groupId, next, end,
+            transList.size());
+        return headers.size();
+    }
+
+    /**
+     * query indexed transactions, newest first.
+     * address matches from or to, contract matches called or deployed contract
+     *
+     * @param pageNumber start from 1
+     */
+    public Page<TransIndex> queryTrans(int groupId, String address, String contract,
+            String methodId, int pageNumber, int pageSize) {
+        if (pageNumber < 1 || pageSize < 1) {
+            throw new FrontException(ConstantCode.PARAM_ERROR);
+        }
+        String addressLower = lower(address);
+        String contractLower = lower(contract);
+        String methodIdLower = lower(methodId);
+        Specification<TransIndex> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("groupId"), groupId));
+            if (addressLower != null) {
+                predicates.add(cb.or(cb.equal(root.get("fromAddress"), addressLower),
+                    cb.equal(root.get("toAddress"), addressLower)));
+            }
+            if (contractLower != null) {
+                predicates.add(cb.equal(root.get("contractAddress"), contractLower));
+            }
+            if (methodIdLower != null) {
+                predicates.add(cb.equal(root.get("methodId"), methodIdLower));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        Sort sort = new Sort(Sort.Direction.DESC, "blockNumber", "transIndex");
+        return transIndexRepository.findAll(spec, new PageRequest(pageNumber - 1, pageSize, sort));
+    }
+
+    /**
+     * query indexed block headers, newest first.
+     */
+    public Page<BlockHeader> queryBlocks(int groupId, int pageNumber, int pageSize) {
+        if (pageNumber < 1 || pageSize < 1) {
+            throw new FrontException(ConstantCode.PARAM_ERROR);
+        }
+        Sort sort = new Sort(Sort.Direction.DESC, "blockNumber");
+        return blockHeaderRepository.findByGroupId(groupId,
+            new PageRequest(pageNumber - 1, pageSize, sort));
+    }
+
+    public IndexCheckpoint getCheckpoint(int groupId) {
+        return indexCheckpointRepository.findOne(groupId);
+    }
+
+    private static BlockHeader toBlockHeader(int groupId, BcosBlock.Block block) {
+        BlockHeader header = new BlockHeader();
+        header.setGroupId(groupId);
+        header.setBlockNumber(block.getNumber().longValue());
+        header.setBlockHash(block.getHash());
+        header.setParentHash(block.getParentHash());
+        header.setSealer(block.getSealer());
+        header.setBlockTimestamp(block.getTimestamp().longValue());
+        header.setTransCount(block.getTransactions() == null ? 0 : block.getTransactions().size());
+        return header;
+    }
+
+    static TransIndex toTransIndex(int groupId, BcosBlock.Block block, int index,
+            Transaction transaction) {
+        TransIndex transIndex = new TransIndex();
+        transIndex.setGroupId(groupId);
+        transIndex.setBlockNumber(block.getNumber().longValue());
+        transIndex.setTransIndex(index);
+        transIndex.setTransHash(transaction.getHash());
+        transIndex.setFromAddress(lower(transaction.getFrom()));
+        transIndex.setBlockTimestamp(block.getTimestamp().longValue());
+        String to = lower(transaction.getTo());
+        if (to == null || EMPTY_ADDRESS.equals(to)) {
+            return transIndex;
+        }
+        transIndex.setToAddress(to);
+        transIndex.setContractAddress(to);
+        String input = transaction.getInput();
+        if (input != null && input.length() >= METHOD_ID_LENGTH) {
+            transIndex.setMethodId(input.substring(0, METHOD_ID_LENGTH).toLowerCase());
+        }
+        return transIndex;
+    }
+
+    private static String lower(String value) {
+        return StringUtils.isBlank(value) ? null : value.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.indexer;
+
+import com.webank.webase.front.indexer.entity.BlockHeader;
+import com.webank.webase.front.indexer.entity.IndexCheckpoint;
+import com.webank.webase.front.indexer.entity.TransIndex;
+import java.util.List;
+import javax.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * save indexed blocks with checkpoint atomically,
+ * so a restart resumes from the block after the checkpoint without duplicates.
+ */
+@Component
+public class IndexerStore {
+
+    @Autowired
+    private BlockHeaderRepository blockHeaderRepository;
+    @Autowired
+    private TransIndexRepository transIndexRepository;
+    @Autowired
+    private IndexCheckpointRepository indexCheckpointRepository;
+
+    @Transactional
+    public void save(List<BlockHeader> headers, List<TransIndex> transList,
+            IndexCheckpoint checkpoint) {
+        blockHeaderRepository.save(headers);
+        transIndexRepository.save(transList);
+        indexCheckpointRepository.save(checkpoint);
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.indexer.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * compact header of an indexed block.
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"groupId", "blockNumber"}),
+    indexes = @Index(columnList = "groupId,blockHash"))
+public class BlockHeader {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    private int groupId;
+    private long blockNumber;
+    private String blockHash;
+    private String parentHash;
+    private String sealer;
+    private long blockTimestamp;
+    private int transCount;
+}
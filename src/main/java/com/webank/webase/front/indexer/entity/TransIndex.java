@@ -0,0 +1,51 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.indexer.entity;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import lombok.Data;
+
+/**
+ * indexed transaction.
+ * contractAddress is toAddress of a call, or the created contract of a deployment
+ */
+@Entity
+@Data
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"groupId", "transHash"}),
+    indexes = {
+        @Index(columnList = "groupId,fromAddress,blockNumber"),
+        @Index(columnList = "groupId,toAddress,blockNumber"),
+        @Index(columnList = "groupId,contractAddress,blockNumber"),
+        @Index(columnList = "groupId,methodId,blockNumber")})
+public class TransIndex {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    private int groupId;
+    private long blockNumber;
+    private int transIndex;
+    private String transHash;
+    private String fromAddress;
+    private String toAddress;
+    private String contractAddress;
+    private String methodId;
+    private long blockTimestamp;
+}
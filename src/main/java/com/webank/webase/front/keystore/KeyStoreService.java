@@ -13,10 +13,17 @@
  */
 package com.webank.webase.front.keystore;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
@@ -24,16 +31,21 @@ import javax.persistence.criteria.Root;
 
 import com.webank.webase.front.keystore.entity.EncodeInfo;
 import com.webank.webase.front.keystore.entity.KeyStoreInfo;
-import com.webank.webase.front.keystore.entity.SignInfo;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.webank.webase.front.metrics.CacheMetrics;
+import com.webank.webase.front.metrics.MetricsSource;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.web3j.crypto.Credentials;
 import org.fisco.bcos.web3j.crypto.ECKeyPair;
 import org.fisco.bcos.web3j.crypto.Keys;
 import org.fisco.bcos.web3j.utils.Numeric;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import com.alibaba.fastjson.JSON;
@@ -52,7 +64,7 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Service
-public class KeyStoreService {
+public class KeyStoreService implements MetricsSource {
 
     @Autowired
     private AesUtils aesUtils;
@@ -63,7 +75,47 @@ public class KeyStoreService {
     @Autowired
     KeystoreRepository keystoreRepository;
     static final int PUBLIC_KEY_LENGTH_IN_HEX = 128;
-    private static Map<String, String> PRIVATE_KEY_MAP = new HashMap<>();
+    @Autowired
+    @Qualifier("keyServerExecutor")
+    private ThreadPoolTaskExecutor keyServerExecutor;
+    /**
+     * privateKey from keyServer by userId and useAes.
+     */
+    private Cache<String, String> privateKeyCache;
+    /**
+     * credentials by user and useAes.
+     */
+    private Cache<String, Credentials> credentialsCache;
+    /**
+     * fixed identity of constant calls, never used to sign transactions.
+     */
+    private Credentials queryCredentials;
+    /**
+     * batching client of WeBASE-Sign.
+     */
+    private SignPipeline signPipeline;
+
+    @PostConstruct
+    public void init() throws Exception {
+        credentialsCache = CacheBuilder.newBuilder()
+            .maximumSize(constants.getCredentialsCacheSize())
+            .expireAfterWrite(constants.getCredentialsCacheTtl(), TimeUnit.SECONDS)
+            .recordStats().build();
+        privateKeyCache = CacheBuilder.newBuilder()
+            .maximumSize(constants.getCredentialsCacheSize())
+            .expireAfterWrite(constants.getCredentialsCacheTtl(), TimeUnit.SECONDS)
+            .recordStats().build();
+        queryCredentials = Credentials.create(Keys.createEcKeyPair());
+        signPipeline = new SignPipeline(restTemplate,
+            String.format(Constants.WEBASE_SIGN_URI, constants.getKeyServer()),
+            constants.getSignQueueSize(), constants.getSignConcurrency());
+        signPipeline.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        signPipeline.stop();
+    }
 
 
     /**
@@ -141,6 +193,8 @@ public class KeyStoreService {
      */
     public void deleteKeyStore(String address) {
         keystoreRepository.delete(address);;
+        credentialsCache.invalidate(address + "_" + true);
+        credentialsCache.invalidate(address + "_" + false);
     }
 
     /**
@@ -172,9 +226,28 @@ public class KeyStoreService {
 
 
     /**
-     * get credential.
+     * get credential of constant calls.
+     */
+    public Credentials getQueryCredentials() {
+        return queryCredentials;
+    }
+
+    /**
+     * get credential from cache, load it if absent.
      */
     public Credentials getCredentials(String user, boolean useAes) throws FrontException {
+        try {
+            return credentialsCache.get(user + "_" + useAes, () -> loadCredentials(user, useAes));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof FrontException) {
+                throw (FrontException) e.getCause();
+            }
+            log.error("fail getCredentials. user:{}", user, e.getCause());
+            throw new FrontException(ConstantCode.PRIVATE_KEY_DECODE_FAIL);
+        }
+    }
+
+    private Credentials loadCredentials(String user, boolean useAes) throws FrontException {
         String privateKey = Optional.ofNullable(getPrivateKey(user, useAes)).orElse(null);
         if (StringUtils.isBlank(privateKey)) {
             log.warn("fail getCredentials. user:{} privateKey is null", user);
@@ -197,29 +270,42 @@ public class KeyStoreService {
             return aesUtils.aesDecrypt(keyStoreInfoLocal.getPrivateKey());
         }
 
-        String key_of_user = user + "_" + useAes;
-        if (PRIVATE_KEY_MAP.containsKey(key_of_user)) {
-            return PRIVATE_KEY_MAP.get(key_of_user);
+        //get privateKey by userId, concurrent requests of the same user load once
+        try {
+            return privateKeyCache.get(user + "_" + useAes,
+                () -> loadRemotePrivateKey(user, useAes));
+        } catch (InvalidCacheLoadException e) {
+            log.warn("fail getPrivateKey. user:{} not found in keyServer", user);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            log.warn("fail getPrivateKey. user:{}", user, e.getCause());
         }
+        return null;
+    }
 
-        //get privateKey by userId
-        KeyStoreInfo keyStoreInfo = new KeyStoreInfo();
+    /**
+     * get privateKey from all key servers in parallel, the first success is used.
+     * return null if none of them success
+     */
+    private String loadRemotePrivateKey(String user, boolean useAes) throws Exception {
         String[] ipPortArr = constants.getKeyServer().split(",");
+        CompletableFuture<KeyStoreInfo> firstSuccess = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(ipPortArr.length);
         for (String ipPort : ipPortArr) {
-            try {
-                String url = String.format(Constants.MGR_PRIVATE_KEY_URI, ipPort, user);
-                log.info("getPrivateKey url:{}", url);
-                BaseResponse response = restTemplate.getForObject(url, BaseResponse.class);
-                log.info("getPrivateKey response:{}", JSON.toJSONString(response));
-                if (response.getCode() == 0) {
-                    keyStoreInfo =
-                        CommonUtils.object2JavaBean(response.getData(), KeyStoreInfo.class);
-                    break;
-                }
-            } catch (Exception e) {
-                log.warn("user:{} getPrivateKey from ipPort:{} exception", user, ipPort, e);
-                continue;
-            }
+            CompletableFuture.supplyAsync(() -> requestPrivateKey(ipPort, user), keyServerExecutor)
+                .whenComplete((keyStoreInfo, ex) -> {
+                    if (keyStoreInfo != null) {
+                        firstSuccess.complete(keyStoreInfo);
+                    } else if (remaining.decrementAndGet() == 0) {
+                        firstSuccess.complete(new KeyStoreInfo());
+                    }
+                });
+        }
+        KeyStoreInfo keyStoreInfo;
+        try {
+            keyStoreInfo = firstSuccess.get(constants.getTransMaxWait(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("user:{} getPrivateKey timeout", user);
+            return null;
         }
 
         String private_key;
@@ -228,12 +314,39 @@ public class KeyStoreService {
         } else {
             private_key = keyStoreInfo.getPrivateKey();
         }
+        return StringUtils.isNotBlank(private_key) ? private_key : null;
+    }
 
-        if (StringUtils.isNotBlank(private_key)) {
-            PRIVATE_KEY_MAP.put(key_of_user, private_key);
+    /**
+     * request privateKey from one key server, null if fail.
+     */
+    private KeyStoreInfo requestPrivateKey(String ipPort, String user) {
+        try {
+            String url = String.format(Constants.MGR_PRIVATE_KEY_URI, ipPort, user);
+            log.info("getPrivateKey url:{}", url);
+            BaseResponse response = restTemplate.getForObject(url, BaseResponse.class);
+            log.info("getPrivateKey response:{}", JSON.toJSONString(response));
+            if (response.getCode() == 0) {
+                return CommonUtils.object2JavaBean(response.getData(), KeyStoreInfo.class);
+            }
+        } catch (Exception e) {
+            log.warn("user:{} getPrivateKey from ipPort:{} exception", user, ipPort, e);
         }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return "keyStore";
+    }
 
-        return private_key;
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("credentialsCache", CacheMetrics.of(credentialsCache));
+        metrics.put("privateKeyCache", CacheMetrics.of(privateKeyCache));
+        metrics.put("signPipeline", signPipeline.getMetrics());
+        return metrics;
     }
 
     /**
@@ -244,19 +357,11 @@ public class KeyStoreService {
      */
     public String getSignDate(EncodeInfo params) {
         try {
-            SignInfo signInfo = new SignInfo();
-            String url = String.format(Constants.WEBASE_SIGN_URI, constants.getKeyServer());
-            log.info("getSignDate url:{}", url);
-            HttpHeaders headers = CommonUtils.buildHeaders();
-            HttpEntity<String> formEntity =
-                    new HttpEntity<String>(JSON.toJSONString(params), headers);
-            BaseResponse response =
-                    restTemplate.postForObject(url, formEntity, BaseResponse.class);
-            log.info("getSignDate response:{}", JSON.toJSONString(response));
-            if (response.getCode() == 0) {
-                signInfo = CommonUtils.object2JavaBean(response.getData(), SignInfo.class);
-            }
-            return signInfo.getSignDataStr();
+            return signPipeline.sign(params)
+                .get(constants.getTransMaxWait(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("getSignDate interrupted", e);
         } catch (Exception e) {
             log.error("getSignDate exception", e);
         }
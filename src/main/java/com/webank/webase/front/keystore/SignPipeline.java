@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.keystore;
+
+import com.alibaba.fastjson.JSON;
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.base.response.BaseResponse;
+import com.webank.webase.front.keystore.entity.EncodeInfo;
+import com.webank.webase.front.keystore.entity.SignInfo;
+import com.webank.webase.front.util.CommonUtils;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * SignPipeline.
+ * queue sign requests of WeBASE-Sign and send them over the pooled connections.
+ * at most concurrency requests are in flight, the dispatcher waits for a free sender,
+ * so requests beyond queueSize are rejected with SIGN_QUEUE_FULL when the sign server is slow.
+ */
+@Slf4j
+public class SignPipeline {
+
+    private final RestTemplate restTemplate;
+    private final String signUrl;
+    private final int concurrency;
+    private final BlockingQueue<SignTask> queue;
+    private final Semaphore senders;
+    private ExecutorService senderPool;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong httpCount = new AtomicLong();
+    private final AtomicLong rejectCount = new AtomicLong();
+
+    /**
+     * SignPipeline.
+     *
+     * @param restTemplate rest template with pooled connections
+     * @param signUrl url of WeBASE-Sign
+     * @param queueSize max queued requests
+     * @param concurrency max http requests in flight
+     */
+    public SignPipeline(RestTemplate restTemplate, String signUrl, int queueSize,
+        int concurrency) {
+        this.restTemplate = restTemplate;
+        this.signUrl = signUrl;
+        this.concurrency = concurrency;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.senders = new Semaphore(concurrency);
+    }
+
+    /**
+     * start dispatcher.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        senderPool = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "signSender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatch, "signDispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * stop dispatcher, queued requests fail.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        if (senderPool != null) {
+            senderPool.shutdown();
+        }
+        List<SignTask> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (SignTask task : left) {
+            task.future.completeExceptionally(new FrontException(ConstantCode.DATA_SIGN_ERROR));
+        }
+    }
+
+    /**
+     * queue a sign request.
+     *
+     * @param encodeInfo user and encoded data
+     * @return future of signDataStr
+     */
+    public CompletableFuture<String> sign(EncodeInfo encodeInfo) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        requestCount.incrementAndGet();
+        if (!running || !queue.offer(new SignTask(encodeInfo, future))) {
+            rejectCount.incrementAndGet();
+            future.completeExceptionally(new FrontException(ConstantCode.SIGN_QUEUE_FULL));
+        }
+        return future;
+    }
+
+    private void dispatch() {
+        while (running) {
+            SignTask task = null;
+            try {
+                // take a sender first, so a task stays queued while all senders are busy
+                senders.acquire();
+                task = queue.take();
+                send(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (task != null) {
+                    task.future.completeExceptionally(
+                        new FrontException(ConstantCode.DATA_SIGN_ERROR));
+                }
+                break;
+            } catch (Exception e) {
+                log.error("signPipeline dispatch fail.", e);
+                senders.release();
+                if (task != null) {
+                    task.future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void send(SignTask task) {
+        senderPool.execute(() -> {
+            try {
+                task.future.complete(requestSign(task.encodeInfo));
+            } catch (Exception e) {
+                task.future.completeExceptionally(e);
+            } finally {
+                senders.release();
+            }
+        });
+    }
+
+    private String requestSign(EncodeInfo encodeInfo) {
+        httpCount.incrementAndGet();
+        HttpEntity<String> formEntity =
+            new HttpEntity<>(JSON.toJSONString(encodeInfo), CommonUtils.buildHeaders());
+        BaseResponse response = restTemplate.postForObject(signUrl, formEntity, BaseResponse.class);
+        log.debug("requestSign response:{}", JSON.toJSONString(response));
+        if (response == null || response.getCode() != 0) {
+            log.warn("requestSign fail. response:{}", JSON.toJSONString(response));
+            throw new FrontException(ConstantCode.DATA_SIGN_ERROR);
+        }
+        SignInfo signInfo = CommonUtils.object2JavaBean(response.getData(), SignInfo.class);
+        return signInfo.getSignDataStr();
+    }
+
+    /**
+     * counters of requests, http requests and rejected requests.
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueSize", queue.size());
+        metrics.put("requestCount", requestCount.get());
+        metrics.put("httpCount", httpCount.get());
+        metrics.put("rejectCount", rejectCount.get());
+        return metrics;
+    }
+
+    private static class SignTask {
+        private final EncodeInfo encodeInfo;
+        private final CompletableFuture<String> future;
+
+        private SignTask(EncodeInfo encodeInfo, CompletableFuture<String> future) {
+            this.encodeInfo = encodeInfo;
+            this.future = future;
+        }
+    }
+}
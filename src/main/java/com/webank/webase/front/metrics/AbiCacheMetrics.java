@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.metrics;
+
+import com.webank.webase.front.util.AbiUtil;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * metrics of parsed abi cache in AbiUtil.
+ */
+@Component
+public class AbiCacheMetrics implements MetricsSource {
+
+    @Override
+    public String getName() {
+        return "abiCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        return CacheMetrics.of(AbiUtil.getAbiCache());
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * metrics of guava caches.
+ */
+public class CacheMetrics {
+
+    private CacheMetrics() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * size and hit ratio of cache, stats should be recorded.
+     *
+     * @param cache cache
+     */
+    public static Map<String, Object> of(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.size());
+        metrics.put("hitCount", stats.hitCount());
+        metrics.put("missCount", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictionCount", stats.evictionCount());
+        return metrics;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * metrics of the shared http connection pool, in total and by route.
+ */
+@Component
+public class HttpPoolMetrics implements MetricsSource {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager httpConnectionManager;
+
+    @Override
+    public String getName() {
+        return "httpPool";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = toMap(httpConnectionManager.getTotalStats());
+        Map<String, Object> routes = new LinkedHashMap<>();
+        for (HttpRoute route : httpConnectionManager.getRoutes()) {
+            routes.put(route.getTargetHost().toURI(),
+                toMap(httpConnectionManager.getStats(route)));
+        }
+        metrics.put("routes", routes);
+        return metrics;
+    }
+
+    private static Map<String, Object> toMap(PoolStats stats) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("leased", stats.getLeased());
+        map.put("available", stats.getAvailable());
+        map.put("pending", stats.getPending());
+        map.put("max", stats.getMax());
+        return map;
+    }
+}
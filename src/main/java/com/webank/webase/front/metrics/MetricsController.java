@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.metrics;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * MetricsController.
+ * runtime metrics of caches and pools
+ */
+@Api(value = "/metrics", tags = "metrics interface")
+@Slf4j
+@RestController
+@RequestMapping(value = "/metrics")
+public class MetricsController {
+
+    @Autowired(required = false)
+    private List<MetricsSource> metricsSources = new ArrayList<>();
+
+    @ApiOperation(value = "get metrics", notes = "get runtime metrics")
+    @GetMapping
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (MetricsSource source : metricsSources) {
+            metrics.put(source.getName(), source.getMetrics());
+        }
+        return metrics;
+    }
+}
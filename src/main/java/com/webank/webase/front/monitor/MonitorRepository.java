@@ -28,6 +28,14 @@ public interface MonitorRepository extends CrudRepository<Monitor, Long> {
     @Query(value="select m from Monitor m where m.groupId = ?1 and m.timestamp between ?2 and ?3 order by m.timestamp")
     public List<Monitor> findByTimeBetween(int groupId, Long startTime, Long endTime);
 
+    /**
+     * min timestamp and averages of each step, in the order of MonitorService's charts.
+     */
+    @Query(value="select min(m.timestamp), avg(m.blockHeight), avg(m.pbftView), avg(m.pendingTransactionCount), avg(m.transactionNumber) "
+            + "from Monitor m where m.groupId = ?1 and m.timestamp between ?2 and ?3 "
+            + "group by (m.timestamp - ?2) / ?4 order by min(m.timestamp)")
+    public List<Object[]> findBucketsByTimeBetween(int groupId, Long startTime, Long endTime, Long step);
+
     @Modifying
     @Transactional
     @Query(value="delete from Monitor m where m.timestamp< ?1",nativeQuery = true)
@@ -16,10 +16,14 @@
 package com.webank.webase.front.monitor;
 
 import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.metrics.MetricsSource;
 import com.webank.webase.front.monitor.entity.Monitor;
-import com.webank.webase.front.performance.result.Data;
 import com.webank.webase.front.performance.result.LineDataList;
 import com.webank.webase.front.performance.result.PerformanceData;
+import com.webank.webase.front.sample.SampleSink;
+import com.webank.webase.front.timeseries.ChartLines;
+import com.webank.webase.front.timeseries.TimeSeriesStore;
 import lombok.extern.slf4j.Slf4j;
 import org.fisco.bcos.web3j.protocol.Web3j;
 import org.fisco.bcos.web3j.protocol.core.methods.response.BlockNumber;
@@ -30,12 +34,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Node monitor service
@@ -44,126 +51,151 @@ import java.util.concurrent.ExecutionException;
 
 @Slf4j
 @Service
-public class MonitorService {
+public class MonitorService implements MetricsSource {
     @Autowired
     Map<Integer,Web3j> web3jMap;
     @Autowired
     MonitorRepository monitorRepository;
+    @Autowired
+    Constants constants;
+    @Autowired
+    TimeSeriesStore timeSeriesStore;
+    @Autowired
+    SampleSink sampleSink;
 
-    public List<PerformanceData> findContrastDataByTime(int groupId, LocalDateTime startTime, LocalDateTime endTime, LocalDateTime contrastStartTime, LocalDateTime contrastEndTime, int gap)  {
+    // chart names, and series names in TimeSeriesStore after "monitor.{groupId}." in the same order
+    private static final String[] CHARTS = {"blockHeight", "pbftView", "pendingCount",
+        "transactionNumber"};
+    private static final String[] FIELDS = {"blockHeight", "pbftView", "pendingTransactionCount",
+        "transactionNumber"};
+    private static final long SAMPLE_INTERVAL = 5000;
 
-        List<Monitor> monitorList;
-        if (startTime == null || endTime == null) {
-            monitorList = new ArrayList<>();
-        } else {
-            monitorList = monitorRepository.findByTimeBetween(groupId,startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
-        }
-        List<Monitor> contrastMonitorList = new ArrayList<>();
-        if (contrastStartTime != null && contrastEndTime != null) {
-            contrastMonitorList = monitorRepository.findByTimeBetween(groupId, contrastStartTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), contrastEndTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
-        }
-        return transferToPerformanceData(transferListByGap(monitorList, gap), transferListByGap(contrastMonitorList, gap));
+    private final AtomicLong queuedSamples = new AtomicLong();
+    private final AtomicLong droppedSamples = new AtomicLong();
+    // millis from the start of a round to its samples queued, only written by scheduler
+    private volatile long lastSampleLag;
+    private volatile long maxSampleLag;
 
+    public List<PerformanceData> findContrastDataByTime(int groupId, LocalDateTime startTime, LocalDateTime endTime, LocalDateTime contrastStartTime, LocalDateTime contrastEndTime, int gap)  {
+        if (gap == 0) {
+            throw new FrontException("gap cannot be 0");
+        }
+        long step = gap * SAMPLE_INTERVAL;
+        return ChartLines.toPerformanceData(CHARTS,
+                queryLines(groupId, toMillis(startTime), toMillis(endTime), step),
+                queryLines(groupId, toMillis(contrastStartTime), toMillis(contrastEndTime), step));
     }
 
-    private List<PerformanceData> transferToPerformanceData(List<Monitor> monitorList, List<Monitor> contrastMonitorList) {
-        List<Long> timestampList = new ArrayList<>();
-        List<BigDecimal> blockHeightValueList = new ArrayList<>();
-        List<BigDecimal> pbftViewValueList = new ArrayList<>();
-        List<BigDecimal> pendingCountValueList = new ArrayList<>();
-        List<BigDecimal> transactionNumberList = new ArrayList<>();
-        for (Monitor monitor : monitorList) {
-            blockHeightValueList.add(monitor.getBlockHeight()==null? null: new BigDecimal(monitor.getBlockHeight()));
-            pbftViewValueList.add(monitor.getPbftView()==null? null: new BigDecimal(monitor.getPbftView()));
-            pendingCountValueList.add(monitor.getPendingTransactionCount()==null? null: new BigDecimal(monitor.getPendingTransactionCount()));
-            transactionNumberList.add(monitor.getTransactionNumber()==null? null: new BigDecimal(monitor.getTransactionNumber()));
-            timestampList.add(monitor.getTimestamp());
-        }
-        monitorList.clear();
-
-        List<Long> contrastTimestampList = new ArrayList<>();
-        List<BigDecimal> contrastBlockHeightValueList = new ArrayList<>();
-        List<BigDecimal> contrastPbftViewValueList = new ArrayList<>();
-        List<BigDecimal> contrastPendingCountValueList = new ArrayList<>();
-        List<BigDecimal> contrastTransactionNumberList = new ArrayList<>();
-        for (Monitor monitor : contrastMonitorList) {
-            contrastBlockHeightValueList.add(monitor.getBlockHeight()==null? null:new BigDecimal(monitor.getBlockHeight()));
-            contrastPbftViewValueList.add(monitor.getPbftView()==null? null: new BigDecimal(monitor.getPbftView()));
-            contrastPendingCountValueList.add(monitor.getPendingTransactionCount()==null? null:new BigDecimal(monitor.getPendingTransactionCount()));
-            contrastTransactionNumberList.add(monitor.getTransactionNumber()==null? null:new BigDecimal(monitor.getTransactionNumber()));
-            contrastTimestampList.add(monitor.getTimestamp());
+    private List<LineDataList> queryLines(int groupId, Long from, Long to, long step) {
+        List<String> series = new ArrayList<>(FIELDS.length);
+        for (String field : FIELDS) {
+            series.add(seriesName(groupId, field));
         }
-        contrastMonitorList.clear();
-        List<PerformanceData> performanceDataList = new ArrayList<>();
-        performanceDataList.add(new PerformanceData("blockHeight", new Data(new LineDataList(timestampList, blockHeightValueList), new LineDataList(contrastTimestampList, contrastBlockHeightValueList))));
-        performanceDataList.add(new PerformanceData("pbftView", new Data(new LineDataList(null, pbftViewValueList), new LineDataList(null, contrastPbftViewValueList))));
-        performanceDataList.add(new PerformanceData("pendingCount", new Data(new LineDataList(null, pendingCountValueList), new LineDataList(null, contrastPendingCountValueList))));
-        performanceDataList.add(new PerformanceData("transactionNumber", new Data(new LineDataList(null, transactionNumberList), new LineDataList(null, contrastTransactionNumberList))));
-        return performanceDataList;
+        return timeSeriesStore.queryLines(series, from, to, step,
+                (start, end, bucket) -> monitorRepository.findBucketsByTimeBetween(groupId, start, end, bucket));
     }
 
-    public List transferListByGap(List arrayList, int gap)  {
-        if (gap == 0) {
-             throw new FrontException("gap cannot be 0");
-        }
-        List newMonitorList= fillList(arrayList);
-        List ilist = new ArrayList<>();
-        int len = newMonitorList.size();
-        for (int i = 0; i < len; i = i + gap) {
-            ilist.add(newMonitorList.get(i));
-        }
-        return ilist;
+    private static Long toMillis(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
-    private List<Monitor> fillList(List<Monitor> monitorList) {
-        List<Monitor> newMonitorList = new ArrayList<>();
-        for (int i = 0; i < monitorList.size() - 1; i++) {
-            Long startTime = monitorList.get(i).getTimestamp();
-            Long endTime = monitorList.get(i + 1).getTimestamp();
-            if (endTime - startTime > 10000) {
-                log.info("****startTime" + startTime);
-                log.info("****endTime" + endTime);
-                while (endTime - startTime > 5000) {
-                    Monitor emptyMonitor = new Monitor();
-                    emptyMonitor.setTimestamp(startTime + 5000);
-                    newMonitorList.add(emptyMonitor);
-                    log.info("****insert" + startTime);
-                    startTime = startTime + 5000;
-                }
-            } else {
-                newMonitorList.add(monitorList.get(i));
-            }
+    private static String seriesName(int groupId, String field) {
+        return "monitor." + groupId + "." + field;
+    }
+
+    private void appendSamples(Monitor monitor) {
+        // same order as FIELDS
+        BigInteger[] values = {monitor.getBlockHeight(), monitor.getPbftView(),
+                monitor.getPendingTransactionCount(), monitor.getTransactionNumber()};
+        for (int i = 0; i < FIELDS.length; i++) {
+            timeSeriesStore.append(seriesName(monitor.getGroupId(), FIELDS[i]),
+                    monitor.getTimestamp(), values[i]);
         }
-        return newMonitorList;
     }
 
     /**
-     * scheduled task to sync Monitor Info per 5s
-     * @throws ExecutionException
-     * @throws InterruptedException
+     * scheduled task to sync Monitor Info per 5s.
+     * all groups are sampled concurrently and the samples are saved in one batch,
+     * a group is dropped in this round if any of its requests fails or times out
      */
     @Scheduled(cron = "0/5 * * * * ?")
-    public void syncMonitorInfo() throws ExecutionException, InterruptedException {
+    public void syncMonitorInfo() {
         log.debug("begin sync chain data");
 
         Long currentTime = System.currentTimeMillis();
-        //to do  add  more group
-        for(Map.Entry<Integer,Web3j> entry : web3jMap.entrySet()) {
-            Monitor monitor = new Monitor();
-            CompletableFuture<BlockNumber> blockHeightFuture = entry.getValue().getBlockNumber().sendAsync();
-            CompletableFuture<PbftView> pbftViewFuture = entry.getValue().getPbftView().sendAsync();
-            CompletableFuture<PendingTxSize> pendingTxSizeFuture = entry.getValue().getPendingTxSize().sendAsync();
-            CompletableFuture<TotalTransactionCount> totalTransactionCountFuture = entry.getValue().getTotalTransactionCount().sendAsync();
-
-            monitor.setBlockHeight(blockHeightFuture.get().getBlockNumber());
-            monitor.setPbftView(pbftViewFuture.get().getPbftView());
-            monitor.setPendingTransactionCount(pendingTxSizeFuture.get().getPendingTxSize());
-            monitor.setTransactionNumber(totalTransactionCountFuture.get().getTotalTransactionCount().getTxSum());
-            monitor.setTimestamp(currentTime);
-            monitor.setGroupId(entry.getKey());
-            monitorRepository.save(monitor);
-            log.debug("insert success =  " + monitor.getId());
+        Map<Integer, CompletableFuture<Monitor>> sampleFutures = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Web3j> entry : web3jMap.entrySet()) {
+            sampleFutures.put(entry.getKey(), sampleGroup(entry.getKey(), entry.getValue(), currentTime));
+        }
+
+        // requests are all sent, so one deadline covers every group
+        long deadline = currentTime + constants.getMonitorSampleTimeout();
+        List<Monitor> monitorList = new ArrayList<>(sampleFutures.size());
+        for (Map.Entry<Integer, CompletableFuture<Monitor>> entry : sampleFutures.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                monitorList.add(entry.getValue().get(remaining, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException e) {
+                droppedSamples.incrementAndGet();
+                log.warn("sync monitor timeout. groupId:{}", entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                droppedSamples.incrementAndGet();
+                log.warn("sync monitor fail. groupId:{}", entry.getKey(), e.getCause());
+            }
+        }
+        if (!monitorList.isEmpty()) {
+            for (Monitor monitor : monitorList) {
+                if (sampleSink.offer(monitor)) {
+                    queuedSamples.incrementAndGet();
+                } else {
+                    droppedSamples.incrementAndGet();
+                }
+                appendSamples(monitor);
+            }
         }
+        long lag = System.currentTimeMillis() - currentTime;
+        lastSampleLag = lag;
+        maxSampleLag = Math.max(maxSampleLag, lag);
+        log.debug("insert success. count:{} lag:{}", monitorList.size(), lag);
+    }
+
+    private CompletableFuture<Monitor> sampleGroup(int groupId, Web3j web3j, Long timestamp) {
+        CompletableFuture<BlockNumber> blockHeightFuture = web3j.getBlockNumber().sendAsync();
+        CompletableFuture<PbftView> pbftViewFuture = web3j.getPbftView().sendAsync();
+        CompletableFuture<PendingTxSize> pendingTxSizeFuture = web3j.getPendingTxSize().sendAsync();
+        CompletableFuture<TotalTransactionCount> totalTransactionCountFuture =
+            web3j.getTotalTransactionCount().sendAsync();
+        return CompletableFuture
+            .allOf(blockHeightFuture, pbftViewFuture, pendingTxSizeFuture, totalTransactionCountFuture)
+            .thenApply(v -> {
+                Monitor monitor = new Monitor();
+                monitor.setBlockHeight(blockHeightFuture.join().getBlockNumber());
+                monitor.setPbftView(pbftViewFuture.join().getPbftView());
+                monitor.setPendingTransactionCount(pendingTxSizeFuture.join().getPendingTxSize());
+                monitor.setTransactionNumber(
+                    totalTransactionCountFuture.join().getTotalTransactionCount().getTxSum());
+                monitor.setTimestamp(timestamp);
+                monitor.setGroupId(groupId);
+                return monitor;
+            });
+    }
+
+    @Override
+    public String getName() {
+        return "monitor";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queuedSamples", queuedSamples.get());
+        metrics.put("droppedSamples", droppedSamples.get());
+        metrics.put("lastSampleLag", lastSampleLag);
+        metrics.put("maxSampleLag", maxSampleLag);
+        return metrics;
     }
 
     /**
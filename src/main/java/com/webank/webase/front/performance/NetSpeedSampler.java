@@ -0,0 +1,140 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.performance;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperic.sigar.NetInterfaceStat;
+import org.hyperic.sigar.Sigar;
+import org.hyperic.sigar.SigarException;
+
+/**
+ * NetSpeedSampler.
+ * speed of network interfaces from the byte counters of the last sample, so no sleep is needed.
+ * interfaces and the one of host ip are resolved again every REFRESH_INTERVAL
+ * or after an interface fails.
+ */
+@Slf4j
+class NetSpeedSampler {
+
+    private static final long REFRESH_INTERVAL = 300000;
+    private static final String DEFAULT_IP = "127.0.0.1";
+
+    private final Sigar sigar;
+    private List<String> interfaces = Collections.emptyList();
+    private String hostInterface;
+    private long refreshTime;
+    // rxBytes, txBytes and timestamp of last sample by interface
+    private final Map<String, long[]> lastCounters = new HashMap<>();
+
+    NetSpeedSampler(Sigar sigar) {
+        this.sigar = sigar;
+    }
+
+    /**
+     * speed in KB/s.
+     */
+    @Getter
+    static class Speed {
+        private final long rxbps;
+        private final long txbps;
+
+        Speed(long rxbps, long txbps) {
+            this.rxbps = rxbps;
+            this.txbps = txbps;
+        }
+    }
+
+    /**
+     * speed of each interface since last sample,
+     * an interface is absent in its first sample or after its counters are reset.
+     */
+    synchronized Map<String, Speed> sample(long now) {
+        if (interfaces.isEmpty() || now - refreshTime >= REFRESH_INTERVAL) {
+            refresh(now);
+        }
+        Map<String, Speed> speeds = new LinkedHashMap<>();
+        for (String name : interfaces) {
+            try {
+                NetInterfaceStat stat = sigar.getNetInterfaceStat(name);
+                Speed speed = update(name, stat.getRxBytes(), stat.getTxBytes(), now);
+                if (speed != null) {
+                    speeds.put(name, speed);
+                }
+            } catch (SigarException e) {
+                log.debug("get net interface stat failed. name:{}", name, e);
+                refreshTime = 0;
+            }
+        }
+        return speeds;
+    }
+
+    /**
+     * name of the interface with host ip, null if not found.
+     */
+    synchronized String getHostInterface() {
+        return hostInterface;
+    }
+
+    synchronized List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    Speed update(String name, long rxBytes, long txBytes, long now) {
+        long[] last = lastCounters.put(name, new long[]{rxBytes, txBytes, now});
+        if (last == null || now <= last[2] || rxBytes < last[0] || txBytes < last[1]) {
+            return null;
+        }
+        long elapsed = now - last[2];
+        return new Speed((rxBytes - last[0]) * 1000 / elapsed / 1024,
+            (txBytes - last[1]) * 1000 / elapsed / 1024);
+    }
+
+    private void refresh(long now) {
+        refreshTime = now;
+        String ip;
+        try {
+            ip = InetAddress.getLocalHost().getHostAddress();
+        } catch (Exception e) {
+            log.info("sigar get ip failed!");
+            ip = DEFAULT_IP;
+        }
+        try {
+            List<String> names = new ArrayList<>();
+            String host = null;
+            for (String name : sigar.getNetInterfaceList()) {
+                // an alias like eth0:1 shares counters of eth0
+                String device = name.split(":")[0];
+                if (!names.contains(device)) {
+                    names.add(device);
+                }
+                if (host == null && ip.equals(sigar.getNetInterfaceConfig(name).getAddress())) {
+                    host = device;
+                }
+            }
+            interfaces = Collections.unmodifiableList(names);
+            hostInterface = host;
+            lastCounters.keySet().retainAll(names);
+        } catch (SigarException e) {
+            log.warn("get net interface list failed.", e);
+        }
+    }
+}
@@ -79,6 +79,36 @@ public class PerformanceController {
         return performanceList;
     }
 
+    /**
+     * query network speed of an interface.
+     *
+     * @param interfaceName interfaceName, interface of host ip if absent
+     * @param beginDate beginDate
+     * @param endDate endDate
+     * @param gap gap
+     * @return
+     */
+    @ApiOperation(value = "query network speed of an interface", notes = "query network speed of an interface")
+    @ApiImplicitParams({@ApiImplicitParam(name = "interfaceName", value = "network interface name"),
+            @ApiImplicitParam(name = "beginDate", value = "start time"),
+            @ApiImplicitParam(name = "endDate", value = "end time"),
+            @ApiImplicitParam(name = "gap", value = "time gap", dataType = "int")})
+    @GetMapping(value = "/net")
+    public List<PerformanceData> getNetSpeed(
+            @RequestParam(required = false) String interfaceName,
+            @RequestParam(required = false) @DateTimeFormat(
+                    iso = DATE_TIME) LocalDateTime beginDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false, defaultValue = "1") int gap) {
+        return performanceService.findNetDataByTime(interfaceName, beginDate, endDate, gap);
+    }
+
+    @ApiOperation(value = "query network interfaces", notes = "query network interfaces")
+    @GetMapping(value = "/net/interfaces")
+    public List<String> getNetInterfaces() {
+        return performanceService.getNetInterfaces();
+    }
+
     @ApiOperation(value = "获取性能配置信息", notes = "获取性能配置信息")
     @GetMapping(value = "/config")
     public Map<String, String> getPerformanceConfig() throws SigarException, UnknownHostException {
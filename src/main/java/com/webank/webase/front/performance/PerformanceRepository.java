@@ -29,6 +29,16 @@ public interface PerformanceRepository extends CrudRepository<Performance, Long>
             + "order by p.timestamp")
     public List<Performance> findByTimeBetween(Long startTime, Long endTime);
 
+    /**
+     * min timestamp and averages of each step, in the order of PerformanceService's charts.
+     */
+    @Query(value = "select min(p.timestamp), avg(p.cpuUseRatio), avg(p.memoryUseRatio), "
+            + "avg(p.diskUseRatio), avg(p.txbps), avg(p.rxbps), avg(p.processCpuUseRatio), "
+            + "avg(p.processMemoryUseRatio) from Performance p "
+            + "where p.timestamp between ?1 and ?2 "
+            + "group by (p.timestamp - ?1) / ?3 order by min(p.timestamp)")
+    public List<Object[]> findBucketsByTimeBetween(Long startTime, Long endTime, Long step);
+
     @Modifying
     @Transactional
     @Query(value = "delete from Performance p where p.timestamp< ?1", nativeQuery = true)
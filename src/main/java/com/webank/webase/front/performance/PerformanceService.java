@@ -19,9 +19,11 @@ import com.webank.webase.front.base.properties.Constants;
 import com.webank.webase.front.base.exception.FrontException;
 import com.webank.webase.front.performance.entity.Performance;
 import com.webank.webase.front.performance.entity.ProcessInfo;
-import com.webank.webase.front.performance.result.Data;
 import com.webank.webase.front.performance.result.LineDataList;
 import com.webank.webase.front.performance.result.PerformanceData;
+import com.webank.webase.front.sample.SampleSink;
+import com.webank.webase.front.timeseries.ChartLines;
+import com.webank.webase.front.timeseries.TimeSeriesStore;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperic.sigar.*;
 import org.hyperic.sigar.cmd.Ps;
@@ -34,6 +36,7 @@ import java.net.UnknownHostException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,12 +54,27 @@ public class PerformanceService {
     private PerformanceRepository performanceRepository;
     @Autowired
     private Constants constants;
+    @Autowired
+    private TimeSeriesStore timeSeriesStore;
+    @Autowired
+    private SampleSink sampleSink;
     // host upload bps(bit per second)
     private static  final String TXBPS = "txbps";
     // host download bps(bit per second)
     private static final String RXBPS = "rxbps";
 
     private static Sigar sigar = new Sigar();
+    private final NetSpeedSampler netSpeedSampler = new NetSpeedSampler(sigar);
+
+    // charts, and series of each chart in TimeSeriesStore
+    private static final String[] CHARTS = {"cpu", "memory", "disk", TXBPS, RXBPS,
+        "process cpu", "process memory"};
+    private static final List<String> SERIES = Arrays.asList("performance.cpu",
+        "performance.memory", "performance.disk", "performance.txbps", "performance.rxbps",
+        "performance.processCpu", "performance.processMemory");
+    private static final long SAMPLE_INTERVAL = 5000;
+    // charts of an interface, series are "performance.net.{interface}.{chart}"
+    private static final String[] NET_CHARTS = {TXBPS, RXBPS};
 
     /**
      * findByTime.
@@ -84,95 +102,30 @@ public class PerformanceService {
     public List<PerformanceData> findContrastDataByTime(LocalDateTime startTime,
                                                         LocalDateTime endTime, LocalDateTime contrastStartTime, LocalDateTime contrastEndTime,
                                                         int gap)  {
-
-        List<Performance> performanceList;
-        if (startTime == null || endTime == null) {
-            performanceList = new ArrayList<>();
-        } else {
-            performanceList = performanceRepository.findByTimeBetween(
-                    startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                    endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
-        }
-        List<Performance> contrastPerformanceList = new ArrayList<>();
-        if (contrastStartTime != null && contrastEndTime != null) {
-            contrastPerformanceList = performanceRepository.findByTimeBetween(
-                    contrastStartTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                    contrastEndTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        if (gap == 0) {
+            throw new FrontException("gap cannot be 0");
         }
-        return transferToPerformanceData(transferListByGap(performanceList, gap),
-                transferListByGap(contrastPerformanceList, gap));
-
+        long step = gap * SAMPLE_INTERVAL;
+        return ChartLines.toPerformanceData(CHARTS,
+                timeSeriesStore.queryLines(SERIES, toMillis(startTime), toMillis(endTime), step,
+                    performanceRepository::findBucketsByTimeBetween),
+                timeSeriesStore.queryLines(SERIES, toMillis(contrastStartTime),
+                    toMillis(contrastEndTime), step,
+                    performanceRepository::findBucketsByTimeBetween));
     }
 
-    private List<PerformanceData> transferToPerformanceData(List<Performance> performanceList,
-                                                            List<Performance> contrastPerformanceList) {
-        List<Long> timestampList = new ArrayList<>();
-        List<BigDecimal> memoryValueList = new ArrayList<>();
-        List<BigDecimal> cpuValueList = new ArrayList<>();
-        List<BigDecimal> diskValueList = new ArrayList<>();
-        List<BigDecimal> rxbpsValueList = new ArrayList<>();
-        List<BigDecimal> txbpsValueList = new ArrayList<>();
-
-        List<BigDecimal> processCpuValueList = new ArrayList<>();
-        List<BigDecimal> processMemoryValueList = new ArrayList<>();
-        for (Performance performance : performanceList) {
-            cpuValueList.add(performance.getCpuUseRatio());
-            memoryValueList.add(performance.getMemoryUseRatio());
-            diskValueList.add(performance.getDiskUseRatio());
-            timestampList.add(performance.getTimestamp());
-            rxbpsValueList.add(performance.getRxbps());
-            txbpsValueList.add(performance.getTxbps());
-
-            processCpuValueList.add(performance.getProcessCpuUseRatio());
-            processMemoryValueList.add(performance.getProcessMemoryUseRatio());
-        }
-        performanceList.clear();
-
-        List<Long> contrastTimestampList = new ArrayList<>();
-        List<BigDecimal> contrastMemoryValueList = new ArrayList<>();
-        List<BigDecimal> contrastCpuValueList = new ArrayList<>();
-        List<BigDecimal> contrastDiskValueList = new ArrayList<>();
-        List<BigDecimal> contrastRxbpsValueList = new ArrayList<>();
-        List<BigDecimal> contrastTxbpsValueList = new ArrayList<>();
-
-        List<BigDecimal> contrastProcessCpuValueList = new ArrayList<>();
-        List<BigDecimal> contrastProcessMemoryValueList = new ArrayList<>();
-        for (Performance performance : contrastPerformanceList) {
-            contrastCpuValueList.add(performance.getCpuUseRatio());
-            contrastMemoryValueList.add(performance.getMemoryUseRatio());
-            contrastDiskValueList.add(performance.getDiskUseRatio());
-            contrastRxbpsValueList.add(performance.getRxbps());
-            contrastTxbpsValueList.add(performance.getTxbps());
-            contrastTimestampList.add(performance.getTimestamp());
+    private static Long toMillis(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 
-            contrastProcessCpuValueList.add(performance.getProcessCpuUseRatio());
-            contrastProcessMemoryValueList.add(performance.getProcessMemoryUseRatio());
+    private void appendSamples(Performance performance) {
+        // same order as SERIES
+        BigDecimal[] values = {performance.getCpuUseRatio(), performance.getMemoryUseRatio(),
+                performance.getDiskUseRatio(), performance.getTxbps(), performance.getRxbps(),
+                performance.getProcessCpuUseRatio(), performance.getProcessMemoryUseRatio()};
+        for (int i = 0; i < values.length; i++) {
+            timeSeriesStore.append(SERIES.get(i), performance.getTimestamp(), values[i]);
         }
-        contrastPerformanceList.clear();
-        List<PerformanceData> performanceDataList = new ArrayList<>();
-        performanceDataList.add(
-                new PerformanceData("cpu", new Data(new LineDataList(timestampList, cpuValueList),
-                        new LineDataList(contrastTimestampList, contrastCpuValueList))));
-        performanceDataList
-                .add(new PerformanceData("memory", new Data(new LineDataList(null, memoryValueList),
-                        new LineDataList(null, contrastMemoryValueList))));
-        performanceDataList
-                .add(new PerformanceData("disk", new Data(new LineDataList(null, diskValueList),
-                        new LineDataList(null, contrastDiskValueList))));
-        performanceDataList
-                .add(new PerformanceData(TXBPS, new Data(new LineDataList(null, txbpsValueList),
-                        new LineDataList(null, contrastTxbpsValueList))));
-        performanceDataList
-                .add(new PerformanceData(RXBPS, new Data(new LineDataList(null, rxbpsValueList),
-                        new LineDataList(null, contrastRxbpsValueList))));
-
-        performanceDataList
-                .add(new PerformanceData("process cpu", new Data(new LineDataList(null, processCpuValueList),
-                        new LineDataList(null, contrastProcessCpuValueList))));
-        performanceDataList
-                .add(new PerformanceData("process memory", new Data(new LineDataList(null, processMemoryValueList),
-                        new LineDataList(null, contrastProcessMemoryValueList))));
-        return performanceDataList;
     }
 
     public boolean toggleSync(boolean toggle) throws Exception {
@@ -205,12 +158,15 @@ public class PerformanceService {
         Long currentTime = System.currentTimeMillis();
         performance.setTimestamp(currentTime);
 
-        try {
-            Map<String, Long> map = getNetSpeed();
-            performance.setTxbps(new BigDecimal(map.get(TXBPS)));
-            performance.setRxbps(new BigDecimal(map.get(RXBPS)));
-        } catch (Exception e) {
-            log.error("get net speed failed.",e);
+        Map<String, NetSpeedSampler.Speed> speeds = netSpeedSampler.sample(currentTime);
+        NetSpeedSampler.Speed hostSpeed = speeds.get(netSpeedSampler.getHostInterface());
+        performance.setTxbps(BigDecimal.valueOf(hostSpeed == null ? 0 : hostSpeed.getTxbps()));
+        performance.setRxbps(BigDecimal.valueOf(hostSpeed == null ? 0 : hostSpeed.getRxbps()));
+        for (Map.Entry<String, NetSpeedSampler.Speed> entry : speeds.entrySet()) {
+            timeSeriesStore.append(netSeriesName(entry.getKey(), TXBPS), currentTime,
+                    entry.getValue().getTxbps());
+            timeSeriesStore.append(netSeriesName(entry.getKey(), RXBPS), currentTime,
+                    entry.getValue().getRxbps());
         }
 
         log.debug("begin sync process performance");
@@ -232,8 +188,9 @@ public class PerformanceService {
                     performance.setProcessCpuUseRatio(BigDecimal.valueOf(100 * procCpu.getPercent()));
                     ProcMem procMem = sigar.getProcMem(pid);
                     performance.setProcessMemoryUseRatio(BigDecimal.valueOf(100 * procMem.getSize() / (double)sigar.getMem().getTotal()));
-                    performanceRepository.save(performance);
-                    log.debug("insert success =  " + performance.getId());
+                    sampleSink.offer(performance);
+                    appendSamples(performance);
+                    log.debug("queue performance success");
                     return;
                 }
 //                    case 0 : info.setPid(list.get(0)); break;
@@ -295,48 +252,47 @@ public class PerformanceService {
     }
 
     /**
-     * getNetSpeed.
+     * names of network interfaces sampled.
+     */
+    public List<String> getNetInterfaces() {
+        return netSpeedSampler.getInterfaces();
+    }
+
+    /**
+     * findNetDataByTime.
+     * speed of a network interface from TimeSeriesStore, the interface of host ip by default.
      *
+     * @param interfaceName interfaceName
+     * @param startTime startTime
+     * @param endTime endTime
+     * @param gap gap
      * @return
      */
-    public Map<String, Long> getNetSpeed()
-            throws UnknownHostException, SigarException, InterruptedException {
-        Map<String, Long> map = new HashMap<String, Long>();
-        InetAddress addr;
-        String ip;
-        try {
-            addr = InetAddress.getLocalHost();
-            ip = addr.getHostAddress();
-        } catch (Exception e ) {
-            log.info("sigar get ip failed!");
-            ip = "127.0.0.1";
+    public List<PerformanceData> findNetDataByTime(String interfaceName, LocalDateTime startTime,
+                                                   LocalDateTime endTime, int gap) {
+        if (gap == 0) {
+            throw new FrontException("gap cannot be 0");
         }
-
-        String[] ifNames = sigar.getNetInterfaceList();
-        long rxbps = 0;
-        long txbps = 0;
-        for (int i = 0; i < ifNames.length; i++) {
-            String name = ifNames[i];
-            NetInterfaceConfig ifconfig = sigar.getNetInterfaceConfig(name);
-            if (ifconfig.getAddress().equals(ip)) {
-                long start = System.currentTimeMillis();
-                NetInterfaceStat statStart = sigar.getNetInterfaceStat(name);
-                long rxBytesStart = statStart.getRxBytes();
-                long txBytesStart = statStart.getTxBytes();
-                Thread.sleep(1000);
-                long end = System.currentTimeMillis();
-                NetInterfaceStat statEnd = sigar.getNetInterfaceStat(name);
-                long rxBytesEnd = statEnd.getRxBytes();
-                long txBytesEnd = statEnd.getTxBytes();
-
-                rxbps = ((rxBytesEnd - rxBytesStart) * 8 / (end - start) * 1000) / 1024 / 8;
-                txbps = ((txBytesEnd - txBytesStart) * 8 / (end - start) * 1000) / 1024 / 8;
-                break;
+        String name = interfaceName == null ? netSpeedSampler.getHostInterface() : interfaceName;
+        if (name == null || !netSpeedSampler.getInterfaces().contains(name)) {
+            throw new FrontException("network interface not found");
+        }
+        List<LineDataList> lines;
+        if (startTime == null || endTime == null) {
+            lines = ChartLines.empty(NET_CHARTS.length);
+        } else {
+            List<String> series = new ArrayList<>(NET_CHARTS.length);
+            for (String chart : NET_CHARTS) {
+                series.add(netSeriesName(name, chart));
             }
+            lines = timeSeriesStore.queryLines(series, toMillis(startTime), toMillis(endTime),
+                    gap * SAMPLE_INTERVAL);
         }
-        map.put(RXBPS, rxbps);
-        map.put(TXBPS, txbps);
-        return map;
+        return ChartLines.toPerformanceData(NET_CHARTS, lines, ChartLines.empty(NET_CHARTS.length));
+    }
+
+    private static String netSeriesName(String interfaceName, String chart) {
+        return "performance.net." + interfaceName.replaceAll("[^A-Za-z0-9_.\\-]", "_") + "." + chart;
     }
 
     /**
@@ -375,48 +331,6 @@ public class PerformanceService {
         return configMap;
     }
 
-    /**
-     * transferListByGap.
-     *
-     * @param arrayList arrayList
-     * @param gap gap
-     * @return
-     */
-    public List transferListByGap(List arrayList, int gap)  {
-        if (gap == 0) {
-            throw new FrontException("gap cannot be 0");
-        }
-        List newPerformanceList = fillList(arrayList);
-        List ilist = new ArrayList<>();
-        int len = newPerformanceList.size();
-        for (int i = 0; i < len; i = i + gap) {
-            ilist.add(newPerformanceList.get(i));
-        }
-        return ilist;
-    }
-
-    private List<Performance> fillList(List<Performance> performanceList) {
-        List<Performance> newPerformanceList = new ArrayList<>();
-        for (int i = 0; i < performanceList.size() - 1; i++) {
-            Long startTime = performanceList.get(i).getTimestamp();
-            Long endTime = performanceList.get(i + 1).getTimestamp();
-            if (endTime - startTime > 10000) {
-                log.info("****startTime" + startTime);
-                log.info("****endTime" + endTime);
-                while (endTime - startTime > 5000) {
-                    Performance emptyPerformance = new Performance();
-                    emptyPerformance.setTimestamp(startTime + 5000);
-                    newPerformanceList.add(emptyPerformance);
-                    log.info("****insert" + startTime);
-                    startTime = startTime + 5000;
-                }
-            } else {
-                newPerformanceList.add(performanceList.get(i));
-            }
-        }
-        return newPerformanceList;
-    }
-
 
     public List<ProcessInfo> getProcessPerformanceRatio() {
         Ps ps = new Ps();
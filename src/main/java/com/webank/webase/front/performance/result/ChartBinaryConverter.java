@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.performance.result;
+
+import com.webank.webase.front.timeseries.DataBlock;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * binary encoding of chart data, written when a request accepts only application/octet-stream.
+ * layout in DataOutputStream order:
+ * int count of charts, UTF metricType of each chart,
+ * DataBlock of lines (timestamps of the first line, a column of values per chart),
+ * DataBlock of contrast lines. a NaN value means no sample in that bucket.
+ */
+public class ChartBinaryConverter extends AbstractGenericHttpMessageConverter<List<PerformanceData>> {
+
+    public ChartBinaryConverter() {
+        super(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!(type instanceof ParameterizedType)) {
+            return false;
+        }
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        return parameterizedType.getRawType() == List.class
+            && parameterizedType.getActualTypeArguments()[0] == PerformanceData.class
+            && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<PerformanceData> read(Type type, Class<?> contextClass,
+        HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("chart data is write only");
+    }
+
+    @Override
+    protected List<PerformanceData> readInternal(Class<? extends List<PerformanceData>> clazz,
+        HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("chart data is write only");
+    }
+
+    @Override
+    protected void writeInternal(List<PerformanceData> charts, Type type,
+        HttpOutputMessage outputMessage) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputMessage.getBody());
+        out.writeInt(charts.size());
+        for (PerformanceData chart : charts) {
+            out.writeUTF(chart.getMetricType());
+        }
+        LineDataList[] lines = new LineDataList[charts.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = charts.get(i).getData().getLineDataList();
+        }
+        toBlock(lines).writeTo(out);
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = charts.get(i).getData().getContrastDataList();
+        }
+        toBlock(lines).writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * lines of charts share timestamps of the first one.
+     */
+    private static DataBlock toBlock(LineDataList[] lines) {
+        long[] timestamps = lines.length == 0 || lines[0].getTimestamps() == null
+            ? new long[0] : lines[0].getTimestamps();
+        double[][] values = new double[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            values[i] = lines[i].getValues();
+        }
+        return DataBlock.encode(timestamps, values, timestamps.length);
+    }
+}
@@ -15,23 +15,23 @@
  */
 package com.webank.webase.front.performance.result;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
 
-import java.math.BigDecimal;
-import java.util.List;
-
 /**
- * DATA UNIT of monitor data
- * LineDataList => Data => PerformanceData
- * containing list of result number which comes from monitor result
+ * points of a chart line backed by primitive arrays,
+ * serialized as timestampList and valueList by LineDataListSerializer.
+ * timestamps is null if the line shares timestamps of the first line,
+ * a NaN value means no sample in that bucket.
  */
 @Data
+@JsonSerialize(using = LineDataListSerializer.class)
 public class LineDataList {
-    List<Long> timestampList;
-    List<BigDecimal> valueList;
+    long[] timestamps;
+    double[] values;
 
-    public LineDataList(List<Long> timestampList, List<BigDecimal> valueList) {
-        this.timestampList = timestampList;
-        this.valueList = valueList;
+    public LineDataList(long[] timestamps, double[] values) {
+        this.timestamps = timestamps;
+        this.values = values;
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.performance.result;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * write LineDataList straight from its arrays, without boxing a value per point.
+ * keeps the former json of List fields: NaN as null, whole values without fraction.
+ */
+public class LineDataListSerializer extends StdSerializer<LineDataList> {
+
+    private static final long serialVersionUID = 1L;
+
+    // doubles beyond 2^53 are not exact longs
+    private static final double MAX_EXACT_LONG = 9007199254740992D;
+
+    public LineDataListSerializer() {
+        super(LineDataList.class);
+    }
+
+    @Override
+    public void serialize(LineDataList line, JsonGenerator gen, SerializerProvider provider)
+        throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("timestampList");
+        long[] timestamps = line.getTimestamps();
+        if (timestamps == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(timestamps.length);
+            for (long timestamp : timestamps) {
+                gen.writeNumber(timestamp);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeFieldName("valueList");
+        double[] values = line.getValues();
+        if (values == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray(values.length);
+            for (double value : values) {
+                writeValue(gen, value);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator gen, double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            gen.writeNull();
+        } else if (value == Math.rint(value) && Math.abs(value) < MAX_EXACT_LONG) {
+            gen.writeNumber((long) value);
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -28,6 +28,14 @@ public interface ProcessPerformanceRepository extends CrudRepository<ProcessPerf
             + "order by p.timestamp")
     public List< ProcessPerformance> findByTimeBetween(Long startTime, Long endTime);
 
+    /**
+     * min timestamp and averages of each step, in the order of ProcessPerformanceService's charts.
+     */
+    @Query(value = "select min(p.timestamp), avg(p.cpuUseRatio), avg(p.memoryUseRatio) "
+            + "from ProcessPerformance p where p.timestamp between ?1 and ?2 "
+            + "group by (p.timestamp - ?1) / ?3 order by min(p.timestamp)")
+    public List<Object[]> findBucketsByTimeBetween(Long startTime, Long endTime, Long step);
+
     @Modifying
     @Transactional
     @Query(value = "delete from  ProcessPerformance p where p.timestamp< ?1", nativeQuery = true)
@@ -19,8 +19,9 @@ import com.webank.webase.front.base.exception.FrontException;
 import com.webank.webase.front.base.properties.Constants;
 import com.webank.webase.front.performance.result.PerformanceData;
 import com.webank.webase.front.processperformance.entity.ProcessPerformance;
-import com.webank.webase.front.performance.result.Data;
-import com.webank.webase.front.performance.result.LineDataList;
+import com.webank.webase.front.sample.SampleSink;
+import com.webank.webase.front.timeseries.ChartLines;
+import com.webank.webase.front.timeseries.TimeSeriesStore;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperic.sigar.*;
 import org.hyperic.sigar.cmd.Ps;
@@ -33,7 +34,7 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,6 +52,10 @@ public class ProcessPerformanceService {
     private ProcessPerformanceRepository processPerformanceRepository;
     @Autowired
     private Constants constants;
+    @Autowired
+    private TimeSeriesStore timeSeriesStore;
+    @Autowired
+    private SampleSink sampleSink;
     // host upload bps(bit per second)
     private static  final String TXBPS = "txbps";
     // host download bps(bit per second)
@@ -58,6 +63,11 @@ public class ProcessPerformanceService {
 
     private static Sigar sigar = new Sigar();
 
+    // chart names, and series names in TimeSeriesStore in the same order
+    private static final String[] CHARTS = {"cpu", "memory"};
+    private static final List<String> SERIES = Arrays.asList("process.cpu", "process.memory");
+    private static final long SAMPLE_INTERVAL = 5000;
+
     /**
      * findByTime.
      * 
@@ -84,75 +94,20 @@ public class ProcessPerformanceService {
     public List<PerformanceData> findProcessContrastDataByTime(LocalDateTime startTime,
                                                                LocalDateTime endTime, LocalDateTime contrastStartTime, LocalDateTime contrastEndTime,
                                                                int gap)  {
-
-        List<ProcessPerformance> performanceList;
-        if (startTime == null || endTime == null) {
-            performanceList = new ArrayList<>();
-        } else {
-            performanceList = processPerformanceRepository.findByTimeBetween(
-                    startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                    endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
-        }
-        List<ProcessPerformance> contrastProcessPerformanceList = new ArrayList<>();
-        if (contrastStartTime != null && contrastEndTime != null) {
-            contrastProcessPerformanceList = processPerformanceRepository.findByTimeBetween(
-                    contrastStartTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
-                    contrastEndTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        if (gap == 0) {
+            throw new FrontException("gap cannot be 0");
         }
-        return transferToPerformanceData(transferListByGap(performanceList, gap),
-                transferListByGap(contrastProcessPerformanceList, gap));
+        long step = gap * SAMPLE_INTERVAL;
+        return ChartLines.toPerformanceData(CHARTS,
+                timeSeriesStore.queryLines(SERIES, toMillis(startTime), toMillis(endTime), step,
+                    processPerformanceRepository::findBucketsByTimeBetween),
+                timeSeriesStore.queryLines(SERIES, toMillis(contrastStartTime),
+                    toMillis(contrastEndTime), step,
+                    processPerformanceRepository::findBucketsByTimeBetween));
     }
 
-    private List<PerformanceData> transferToPerformanceData(List<ProcessPerformance> performanceList,
-                                                            List<ProcessPerformance> contrastProcessPerformanceList) {
-        List<Long> timestampList = new ArrayList<>();
-        List<BigDecimal> memoryValueList = new ArrayList<>();
-        List<BigDecimal> cpuValueList = new ArrayList<>();
-//        List<BigDecimal> diskValueList = new ArrayList<>();
-//        List<BigDecimal> rxbpsValueList = new ArrayList<>();
-//        List<BigDecimal> txbpsValueList = new ArrayList<>();
-        for (ProcessPerformance processPerformance : performanceList) {
-            cpuValueList.add(processPerformance.getCpuUseRatio());
-            memoryValueList.add(processPerformance.getMemoryUseRatio());
-//            diskValueList.add(processPerformance.getDiskUseRatio());
-            timestampList.add(processPerformance.getTimestamp());
-//            rxbpsValueList.add(processPerformance.getRxbps());
-//            txbpsValueList.add(processPerformance.getTxbps());
-        }
-        performanceList.clear();
-
-        List<Long> contrastTimestampList = new ArrayList<>();
-        List<BigDecimal> contrastMemoryValueList = new ArrayList<>();
-        List<BigDecimal> contrastCpuValueList = new ArrayList<>();
-//        List<BigDecimal> contrastDiskValueList = new ArrayList<>();
-//        List<BigDecimal> contrastRxbpsValueList = new ArrayList<>();
-//        List<BigDecimal> contrastTxbpsValueList = new ArrayList<>();
-        for (ProcessPerformance processPerformance : contrastProcessPerformanceList) {
-            contrastCpuValueList.add(processPerformance.getCpuUseRatio());
-            contrastMemoryValueList.add(processPerformance.getMemoryUseRatio());
-//            contrastDiskValueList.add(processPerformance.getDiskUseRatio());
-//            contrastRxbpsValueList.add(processPerformance.getRxbps());
-//            contrastTxbpsValueList.add(processPerformance.getTxbps());
-            contrastTimestampList.add(processPerformance.getTimestamp());
-        }
-        contrastProcessPerformanceList.clear();
-        List<PerformanceData> performanceDataList = new ArrayList<>();
-        performanceDataList.add(
-                new PerformanceData("cpu", new Data(new LineDataList(timestampList, cpuValueList),
-                        new LineDataList(contrastTimestampList, contrastCpuValueList))));
-        performanceDataList
-                .add(new PerformanceData("memory", new Data(new LineDataList(null, memoryValueList),
-                        new LineDataList(null, contrastMemoryValueList))));
-//        performanceDataList
-//                .add(new PerformanceData("disk", new Data(new LineDataList(null, diskValueList),
-//                        new LineDataList(null, contrastDiskValueList))));
-//        performanceDataList
-//                .add(new PerformanceData(TXBPS, new Data(new LineDataList(null, txbpsValueList),
-//                        new LineDataList(null, contrastTxbpsValueList))));
-//        performanceDataList
-//                .add(new PerformanceData(RXBPS, new Data(new LineDataList(null, rxbpsValueList),
-//                        new LineDataList(null, contrastRxbpsValueList))));
-        return performanceDataList;
+    private static Long toMillis(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
     public boolean toggleSync(boolean toggle) throws Exception {
@@ -194,8 +149,12 @@ public class ProcessPerformanceService {
                     processProcessPerformance.setCpuUseRatio(BigDecimal.valueOf(procMem.getSize() / sigar.getMem().getTotal()));
                     Long currentTime = System.currentTimeMillis();
                     processProcessPerformance.setTimestamp(currentTime);
-                    processPerformanceRepository.save(processProcessPerformance);
-                    log.debug("insert success =  " + processProcessPerformance.getId());
+                    sampleSink.offer(processProcessPerformance);
+                    timeSeriesStore.append(SERIES.get(0), currentTime,
+                            processProcessPerformance.getCpuUseRatio());
+                    timeSeriesStore.append(SERIES.get(1), currentTime,
+                            processProcessPerformance.getMemoryUseRatio());
+                    log.debug("queue process performance success");
                     return;
                 }
 //                    case 0 : info.setPid(list.get(0)); break;
@@ -322,47 +281,6 @@ public class ProcessPerformanceService {
 //        return configMap;
 //    }
 
-    /**
-     * transferListByGap.
-     * 
-     * @param arrayList arrayList
-     * @param gap gap
-     * @return
-     */
-    public List transferListByGap(List arrayList, int gap)  {
-        if (gap == 0) {
-             throw new FrontException("gap cannot be 0");
-        }
-        List newProcessPerformanceList = fillList(arrayList);
-        List ilist = new ArrayList<>();
-        int len = newProcessPerformanceList.size();
-        for (int i = 0; i < len; i = i + gap) {
-            ilist.add(newProcessPerformanceList.get(i));
-        }
-        return ilist;
-    }
-
-    private List<ProcessPerformance> fillList(List<ProcessPerformance> performanceList) {
-        List<ProcessPerformance> newProcessPerformanceList = new ArrayList<>();
-        for (int i = 0; i < performanceList.size() - 1; i++) {
-            Long startTime = performanceList.get(i).getTimestamp();
-            Long endTime = performanceList.get(i + 1).getTimestamp();
-            if (endTime - startTime > 10000) {
-                log.info("****startTime" + startTime);
-                log.info("****endTime" + endTime);
-                while (endTime - startTime > 5000) {
-                    ProcessPerformance emptyProcessPerformance = new ProcessPerformance();
-                    emptyProcessPerformance.setTimestamp(startTime + 5000);
-                    newProcessPerformanceList.add(emptyProcessPerformance);
-                    log.info("****insert" + startTime);
-                    startTime = startTime + 5000;
-                }
-            } else {
-                newProcessPerformanceList.add(performanceList.get(i));
-            }
-        }
-        return newProcessPerformanceList;
-    }
     /**
      * deleteProcessPerformanceInfoPerWeek at 00:00:00 per week
      */
@@ -0,0 +1,173 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.sample;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.metrics.MetricsSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * SampleSink.
+ * write-behind of sample entities taken by the scheduled samplers.
+ * samples are queued without blocking and inserted by a single writer thread,
+ * a batch is written when it reaches sampleBatchSize or sampleFlushInterval passed
+ * since its first sample. a sample is dropped if the queue is full.
+ */
+@Slf4j
+@Component
+public class SampleSink implements MetricsSource {
+
+    @Autowired
+    private Constants constants;
+    @Autowired
+    private SampleStore sampleStore;
+
+    private BlockingQueue<Object> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong queuedSamples = new AtomicLong();
+    private final AtomicLong overflowSamples = new AtomicLong();
+    // only written by writer thread
+    private volatile long writtenSamples;
+    private volatile long failedSamples;
+    private volatile long batches;
+    private volatile long lastBatchSize;
+    private volatile long lastBatchCost;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(constants.getSampleQueueSize());
+        running = true;
+        writer = new Thread(this::run, "sampleWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * queue a sample entity to insert.
+     *
+     * @return false if the queue is full and the sample is dropped
+     */
+    public boolean offer(Object sample) {
+        if (queue.offer(sample)) {
+            queuedSamples.incrementAndGet();
+            return true;
+        }
+        if (overflowSamples.getAndIncrement() % 1000 == 0) {
+            log.warn("sample queue is full, samples are dropped. size:{}", queue.size());
+        }
+        return false;
+    }
+
+    private void run() {
+        int batchSize = constants.getSampleBatchSize();
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Object first = queue.poll(constants.getSampleFlushInterval(),
+                        TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + constants.getSampleFlushInterval();
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.currentTimeMillis();
+                    Object next = remaining > 0 ? queue.poll(remaining, TimeUnit.MILLISECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            write(batch);
+            batch.clear();
+        }
+        write(batch);
+    }
+
+    private void write(List<Object> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            sampleStore.save(batch);
+            writtenSamples += batch.size();
+        } catch (Exception e) {
+            failedSamples += batch.size();
+            log.error("write samples fail. size:{}", batch.size(), e);
+        }
+        batches++;
+        lastBatchSize = batch.size();
+        lastBatchCost = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * stop the writer and write samples still queued.
+     * the writer is not interrupted, an interrupt closes the file channel of h2.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(constants.getSampleFlushInterval() * 2L + 10000);
+        if (writer.isAlive()) {
+            log.warn("sample writer not stopped, queued samples are dropped. size:{}",
+                    queue.size());
+            return;
+        }
+        List<Object> rest = new ArrayList<>(queue.size());
+        queue.drainTo(rest);
+        write(rest);
+    }
+
+    @Override
+    public String getName() {
+        return "sampleSink";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("queueSize", queue.size());
+        metrics.put("queueCapacity", constants.getSampleQueueSize());
+        metrics.put("queuedSamples", queuedSamples.get());
+        metrics.put("overflowSamples", overflowSamples.get());
+        metrics.put("writtenSamples", writtenSamples);
+        metrics.put("failedSamples", failedSamples);
+        metrics.put("batches", batches);
+        metrics.put("lastBatchSize", lastBatchSize);
+        metrics.put("lastBatchCost", lastBatchCost);
+        return metrics;
+    }
+}
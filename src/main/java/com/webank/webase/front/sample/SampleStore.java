@@ -0,0 +1,38 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.sample;
+
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import org.springframework.stereotype.Component;
+
+/**
+ * insert a batch of sample entities in one transaction.
+ * inserts are grouped into jdbc batches by hibernate.jdbc.batch_size and hibernate.order_inserts.
+ */
+@Component
+public class SampleStore {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public void save(List<Object> samples) {
+        for (Object sample : samples) {
+            entityManager.persist(sample);
+        }
+    }
+}
@@ -28,6 +28,14 @@ public interface SituationRepository extends CrudRepository<Situation, Long> {
     @Query(value="select s from Situation s where s.groupId = ?1 and s.timestamp between ?2 and ?3 order by s.timestamp")
     public List<Situation> findByTimeBetween(int groupId, Long startTime, Long endTime);
 
+    /**
+     * min timestamp and averages of each step, in the order of SituationService's charts.
+     */
+    @Query(value="select min(s.timestamp), avg(s.txPool), avg(s.sealer), avg(s.consensusEngineBlock), avg(s.consensusEngineCommonView), avg(s.blockChain), avg(s.blockVerifier) "
+            + "from Situation s where s.groupId = ?1 and s.timestamp between ?2 and ?3 "
+            + "group by (s.timestamp - ?2) / ?4 order by min(s.timestamp)")
+    public List<Object[]> findBucketsByTimeBetween(int groupId, Long startTime, Long endTime, Long step);
+
     @Query(value="select s from Situation s where s.groupId = ?1 order by s.timestamp desc")
     public List<Situation> findSituationDataNow(int groupId);
 
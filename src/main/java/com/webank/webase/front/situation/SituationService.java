@@ -18,19 +18,19 @@ package com.webank.webase.front.situation;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.webank.webase.front.base.exception.FrontException;
-import com.webank.webase.front.performance.result.Data;
 import com.webank.webase.front.performance.result.LineDataList;
 import com.webank.webase.front.performance.result.PerformanceData;
+import com.webank.webase.front.sample.SampleSink;
 import com.webank.webase.front.situation.entity.Situation;
+import com.webank.webase.front.timeseries.ChartLines;
+import com.webank.webase.front.timeseries.TimeSeriesStore;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.message.BasicHeader;
-import org.apache.http.protocol.HTTP;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
 import org.fisco.bcos.web3j.protocol.Web3j;
 import org.fisco.bcos.web3j.protocol.core.methods.response.PendingTxSize;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TotalTransactionCount;
@@ -38,10 +38,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -63,17 +60,25 @@ public class SituationService {
     Map<Integer,Web3j> web3jMap;
     @Autowired
     SituationRepository situationRepository;
+    @Autowired
+    CloseableHttpClient httpClient;
+    @Autowired
+    TimeSeriesStore timeSeriesStore;
+    @Autowired
+    SampleSink sampleSink;
 
-    public List<PerformanceData> findSituationDataByTime(int groupId, LocalDateTime startTime, LocalDateTime endTime, int gap)  {
+    // chart name, also series name in TimeSeriesStore after "situation.{groupId}."
+    private static final String[] CHARTS = {"txPool", "sealer", "consensusEngineBlock",
+        "consensusEngineCommonView", "blockChain", "blockVerifier"};
+    private static final long SAMPLE_INTERVAL = 5000;
 
-        List<Situation> situationList;
-        if (startTime == null || endTime == null) {
-            situationList = new ArrayList<>();
-        } else {
-            situationList = situationRepository.findByTimeBetween(groupId,startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    public List<PerformanceData> findSituationDataByTime(int groupId, LocalDateTime startTime, LocalDateTime endTime, int gap)  {
+        if (gap == 0) {
+            throw new FrontException("gap cannot be 0");
         }
-        return transferToPerformanceData(transferListByGap(situationList, gap));
-
+        List<LineDataList> lines = queryLines(groupId, toMillis(startTime), toMillis(endTime),
+                gap * SAMPLE_INTERVAL);
+        return ChartLines.toPerformanceData(CHARTS, lines, lines);
     }
 
     public Situation findSituationDataNow(int groupId) {
@@ -86,34 +91,32 @@ public class SituationService {
         return situationRepository.findSituationDataNow(groupId);
     }
 
-    private List<PerformanceData> transferToPerformanceData(List<Situation> situationList) {
-        List<Long> timestampList = new ArrayList<>();
-        List<BigDecimal> txPoolList = new ArrayList<>();
-        List<BigDecimal> sealerList = new ArrayList<>();
-        List<BigDecimal> consensusEngineBlockList = new ArrayList<>();
-        List<BigDecimal> consensusEngineCommonViewList = new ArrayList<>();
-        List<BigDecimal> blockChainList = new ArrayList<>();
-        List<BigDecimal> blockVerifierList = new ArrayList<>();
-        for (Situation situation : situationList) {
-            txPoolList.add(new BigDecimal(situation.getTxPool()));
-            sealerList.add(new BigDecimal(situation.getSealer()));
-            consensusEngineBlockList.add(new BigDecimal(situation.getConsensusEngineBlock()));
-            consensusEngineCommonViewList.add(new BigDecimal(situation.getConsensusEngineCommonView()));
-            blockChainList.add(new BigDecimal(situation.getBlockChain()));
-            blockVerifierList.add(new BigDecimal(situation.getBlockVerifier()));
-            
-            timestampList.add(situation.getTimestamp());
+    private List<LineDataList> queryLines(int groupId, Long from, Long to, long step) {
+        List<String> series = new ArrayList<>(CHARTS.length);
+        for (String chart : CHARTS) {
+            series.add(seriesName(groupId, chart));
         }
-        situationList.clear();
+        return timeSeriesStore.queryLines(series, from, to, step,
+                (start, end, bucket) -> situationRepository.findBucketsByTimeBetween(groupId, start, end, bucket));
+    }
+
+    private static Long toMillis(LocalDateTime time) {
+        return time == null ? null : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 
-        List<PerformanceData> performanceDataList = new ArrayList<>();
-        performanceDataList.add(new PerformanceData("txPool", new Data(new LineDataList(timestampList, txPoolList), new LineDataList(timestampList, txPoolList))));
-        performanceDataList.add(new PerformanceData("sealer", new Data(new LineDataList(null, sealerList), new LineDataList(null, sealerList))));
-        performanceDataList.add(new PerformanceData("consensusEngineBlock", new Data(new LineDataList(null, consensusEngineBlockList), new LineDataList(null, consensusEngineBlockList))));
-        performanceDataList.add(new PerformanceData("consensusEngineCommonView", new Data(new LineDataList(null, consensusEngineCommonViewList), new LineDataList(null, consensusEngineCommonViewList))));
-        performanceDataList.add(new PerformanceData("blockChain", new Data(new LineDataList(null, blockChainList), new LineDataList(null, blockChainList))));
-        performanceDataList.add(new PerformanceData("blockVerifier", new Data(new LineDataList(null, blockVerifierList), new LineDataList(null, blockVerifierList))));
-        return performanceDataList;
+    private static String seriesName(int groupId, String field) {
+        return "situation." + groupId + "." + field;
+    }
+
+    private void appendSamples(Situation situation) {
+        // same order as CHARTS
+        double[] values = {situation.getTxPool(), situation.getSealer(),
+                situation.getConsensusEngineBlock(), situation.getConsensusEngineCommonView(),
+                situation.getBlockChain(), situation.getBlockVerifier()};
+        for (int i = 0; i < CHARTS.length; i++) {
+            timeSeriesStore.append(seriesName(situation.getGroupId(), CHARTS[i]),
+                    situation.getTimestamp(), values[i]);
+        }
     }
 
     public void randValue(Situation situation) {
@@ -125,41 +128,6 @@ public class SituationService {
         situation.setBlockVerifier((int)(Math.random()*101));
     }
 
-    public List transferListByGap(List arrayList, int gap)  {
-        if (gap == 0) {
-             throw new FrontException("gap cannot be 0");
-        }
-        List newSituationList= fillList(arrayList);
-        List ilist = new ArrayList<>();
-        int len = newSituationList.size();
-        for (int i = 0; i < len; i = i + gap) {
-            ilist.add(newSituationList.get(i));
-        }
-        return ilist;
-    }
-
-    private List<Situation> fillList(List<Situation> situationList) {
-        List<Situation> newSituationList = new ArrayList<>();
-        for (int i = 0; i < situationList.size() - 1; i++) {
-            Long startTime = situationList.get(i).getTimestamp();
-            Long endTime = situationList.get(i + 1).getTimestamp();
-            if (endTime - startTime > 10000) {
-                log.info("****startTime" + startTime);
-                log.info("****endTime" + endTime);
-                while (endTime - startTime > 5000) {
-                    Situation emptySituation = new Situation();
-                    emptySituation.setTimestamp(startTime + 5000);
-                    newSituationList.add(emptySituation);
-                    log.info("****insert" + startTime);
-                    startTime = startTime + 5000;
-                }
-            } else {
-                newSituationList.add(situationList.get(i));
-            }
-        }
-        return newSituationList;
-    }
-
     /**
      * scheduled task to sync Situation Info per 5s
      * @throws ExecutionException
@@ -187,8 +155,9 @@ public class SituationService {
             situation.setBlockVerifier(pendingTxSizeFuture.get().getPendingTxSize().intValue());
             situation.setTimestamp(currentTime);
             situation.setGroupId(entry.getKey());
-            situationRepository.save(situation);
-            log.debug("insert success =  " + situation.getId());
+            sampleSink.offer(situation);
+            appendSamples(situation);
+            log.debug("queue situation success. groupId:{}", entry.getKey());
         }
     }
 
@@ -239,34 +208,22 @@ public class SituationService {
         return isWorking.equals("true")? 100: 0;
     }
 
-    public static JSONObject sendPost(JSONObject json, String URL) {
-        HttpClient client = new DefaultHttpClient();
+    /**
+     * post json by the shared pooled httpClient.
+     */
+    public JSONObject sendPost(JSONObject json, String URL) {
         HttpPost post = new HttpPost(URL);
         post.setHeader("Content-Type", "application/json");
         post.addHeader("Authorization", "Basic YWRtaW46");
-        String result = "";
-        try {
-            StringEntity s = new StringEntity(json.toString(), "utf-8");
-            s.setContentEncoding(new BasicHeader(HTTP.CONTENT_TYPE,
-                    "application/json"));
-            post.setEntity(s);
-            HttpResponse httpResponse = client.execute(post);
-
-            InputStream inStream = httpResponse.getEntity().getContent();
-            BufferedReader reader = new BufferedReader(new InputStreamReader(
-                    inStream, "utf-8"));
-            String line = null;
-            while ((line = reader.readLine()) != null)
-                result += line;
-            inStream.close();
-
-            System.out.println(result);
-
+        post.setEntity(new StringEntity(json.toString(), ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse httpResponse = httpClient.execute(post)) {
+            // consume the entity so that the connection goes back to the pool
+            String result = EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8);
+            log.debug("sendPost result:{}", result);
+            return JSON.parseObject(result);
         } catch (Exception e) {
-            System.out.println("请求异常");
+            log.error("sendPost exception. url:{}", URL, e);
             throw new RuntimeException(e);
         }
-
-        return JSON.parseObject(result);
     }
 }
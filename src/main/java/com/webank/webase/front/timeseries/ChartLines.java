@@ -0,0 +1,121 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+import com.webank.webase.front.performance.result.Data;
+import com.webank.webase.front.performance.result.LineDataList;
+import com.webank.webase.front.performance.result.PerformanceData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ChartLines.
+ * build LineDataList of charts from bucketed arrays,
+ * lines of a chart share timestamps, only the first line carries them.
+ * a bucket without value is kept as NaN and written as null.
+ */
+public final class ChartLines {
+
+    private static final int MAX_BUCKETS = 200000;
+
+    private ChartLines() {
+    }
+
+    /**
+     * enlarge step if the range has too many buckets.
+     */
+    public static long limitStep(long from, long to, long step) {
+        long range = Math.max(0, to - from);
+        step = Math.max(step, 1);
+        if (range / step + 1 > MAX_BUCKETS) {
+            step = range / (MAX_BUCKETS - 1) + 1;
+        }
+        return step;
+    }
+
+    /**
+     * lines without points.
+     */
+    public static List<LineDataList> empty(int lineCount) {
+        return downsample(new long[0], new double[lineCount][0], 0);
+    }
+
+    /**
+     * build lines from rows of a grouped query.
+     *
+     * @param rows min timestamp of bucket followed by a value of each line, ordered by time
+     * @param step bucket size, a bucket without row is null
+     * @param maxPoints points kept by lttb, 0 to keep all
+     */
+    public static List<LineDataList> fromBuckets(List<Object[]> rows, long from, long to,
+        long step, int lineCount, int maxPoints) {
+        int size = (int) (Math.max(0, to - from) / step) + 1;
+        long[] timestamps = new long[size];
+        double[][] lines = new double[lineCount][size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = from + i * step;
+        }
+        for (double[] line : lines) {
+            Arrays.fill(line, Double.NaN);
+        }
+        for (Object[] row : rows) {
+            int i = (int) ((((Number) row[0]).longValue() - from) / step);
+            for (int s = 0; s < lineCount; s++) {
+                Object value = row[s + 1];
+                lines[s][i] = value == null ? Double.NaN : ((Number) value).doubleValue();
+            }
+        }
+        return downsample(timestamps, lines, maxPoints);
+    }
+
+    /**
+     * keep maxPoints points of lines by lttb.
+     *
+     * @param maxPoints 0 to keep all
+     */
+    public static List<LineDataList> downsample(long[] timestamps, double[][] lines,
+        int maxPoints) {
+        int[] indexes = Lttb.select(timestamps, lines, maxPoints);
+        List<LineDataList> result = new ArrayList<>(lines.length);
+        for (int s = 0; s < lines.length; s++) {
+            long[] selectedTimestamps = null;
+            if (s == 0) {
+                selectedTimestamps = new long[indexes.length];
+                for (int i = 0; i < indexes.length; i++) {
+                    selectedTimestamps[i] = timestamps[indexes[i]];
+                }
+            }
+            double[] selectedValues = new double[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                selectedValues[i] = lines[s][indexes[i]];
+            }
+            result.add(new LineDataList(selectedTimestamps, selectedValues));
+        }
+        return result;
+    }
+
+    /**
+     * pair lines and contrast lines of the same chart.
+     */
+    public static List<PerformanceData> toPerformanceData(String[] names,
+        List<LineDataList> lines, List<LineDataList> contrastLines) {
+        List<PerformanceData> performanceDataList = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            performanceDataList.add(new PerformanceData(names[i],
+                new Data(lines.get(i), contrastLines.get(i))));
+        }
+        return performanceDataList;
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * DataBlock.
+ * sealed points of a series, stored by column.
+ * timestamps are delta-of-delta zigzag varints, doubles are xor of the previous value's bits
+ * as varint. a column whose values are mostly integers has its xor bits reversed,
+ * so that the zero low bits of the mantissa take no space.
+ */
+public final class DataBlock {
+
+    private static final byte PLAIN = 0;
+    private static final byte REVERSED = 1;
+
+    private final int size;
+    private final int columns;
+    private final long firstTime;
+    private final long lastTime;
+    private final byte[] data;
+
+    private DataBlock(int size, int columns, long firstTime, long lastTime, byte[] data) {
+        this.size = size;
+        this.columns = columns;
+        this.firstTime = firstTime;
+        this.lastTime = lastTime;
+        this.data = data;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public long getFirstTime() {
+        return firstTime;
+    }
+
+    public long getLastTime() {
+        return lastTime;
+    }
+
+    public int getEncodedSize() {
+        return data.length;
+    }
+
+    /**
+     * encode.
+     *
+     * @param timestamps ascending timestamps
+     * @param values values by column
+     * @param size count of points
+     */
+    public static DataBlock encode(long[] timestamps, double[][] values, int size) {
+        ByteWriter writer = new ByteWriter(size * (2 + values.length * 4));
+        long lastDelta = 0;
+        for (int i = 1; i < size; i++) {
+            long delta = timestamps[i] - timestamps[i - 1];
+            writer.writeSignedVarLong(delta - lastDelta);
+            lastDelta = delta;
+        }
+        for (double[] column : values) {
+            long plainSize = 0;
+            long reversedSize = 0;
+            long prev = 0;
+            for (int i = 0; i < size; i++) {
+                long bits = Double.doubleToRawLongBits(column[i]);
+                plainSize += varLongSize(bits ^ prev);
+                reversedSize += varLongSize(Long.reverse(bits ^ prev));
+                prev = bits;
+            }
+            boolean reversed = reversedSize < plainSize;
+            writer.writeByte(reversed ? REVERSED : PLAIN);
+            prev = 0;
+            for (int i = 0; i < size; i++) {
+                long bits = Double.doubleToRawLongBits(column[i]);
+                writer.writeVarLong(reversed ? Long.reverse(bits ^ prev) : bits ^ prev);
+                prev = bits;
+            }
+        }
+        if (size == 0) {
+            return new DataBlock(0, values.length, 0, 0, writer.toByteArray());
+        }
+        return new DataBlock(size, values.length, timestamps[0], timestamps[size - 1],
+            writer.toByteArray());
+    }
+
+    /**
+     * decode into arrays of at least size.
+     */
+    public void decode(long[] timestamps, double[][] values) {
+        if (size == 0) {
+            return;
+        }
+        ByteReader reader = new ByteReader(data);
+        timestamps[0] = firstTime;
+        long delta = 0;
+        for (int i = 1; i < size; i++) {
+            delta += reader.readSignedVarLong();
+            timestamps[i] = timestamps[i - 1] + delta;
+        }
+        for (int c = 0; c < columns; c++) {
+            boolean reversed = reader.readByte() == REVERSED;
+            long prev = 0;
+            for (int i = 0; i < size; i++) {
+                long xor = reader.readVarLong();
+                prev ^= reversed ? Long.reverse(xor) : xor;
+                values[c][i] = Double.longBitsToDouble(prev);
+            }
+        }
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(columns);
+        out.writeLong(firstTime);
+        out.writeLong(lastTime);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    public static DataBlock readFrom(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        int columns = in.readInt();
+        long firstTime = in.readLong();
+        long lastTime = in.readLong();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new DataBlock(size, columns, firstTime, lastTime, data);
+    }
+
+    private static int varLongSize(long value) {
+        int bytes = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static final class ByteWriter {
+        private byte[] buffer;
+        private int position;
+
+        ByteWriter(int capacity) {
+            buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void writeByte(int value) {
+            if (position == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class ByteReader {
+        private final byte[] buffer;
+        private int position;
+
+        ByteReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readSignedVarLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
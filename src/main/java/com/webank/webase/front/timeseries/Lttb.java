@@ -0,0 +1,110 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+/**
+ * Lttb.
+ * largest-triangle-three-buckets downsampling of lines sharing timestamps.
+ * areas of each line are normalized by its value range and summed,
+ * so one point of each bucket is kept for all lines. NaN values add no area,
+ * a bucket of only NaN keeps its first point.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * select indexes of points to keep.
+     *
+     * @param timestamps ascending timestamps
+     * @param lines values of each line, same length as timestamps
+     * @param threshold count of points to keep, all points are kept if less than 3
+     * @return ascending indexes
+     */
+    public static int[] select(long[] timestamps, double[][] lines, int threshold) {
+        int size = timestamps.length;
+        if (threshold < 3 || threshold >= size) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        double[] scales = new double[lines.length];
+        for (int s = 0; s < lines.length; s++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (double value : lines[s]) {
+                if (!Double.isNaN(value)) {
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+            }
+            scales[s] = max > min ? 1 / (max - min) : 1;
+        }
+
+        int[] selected = new int[threshold];
+        double every = (double) (size - 2) / (threshold - 2);
+        double[] nextAvg = new double[lines.length];
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            int nextStart = (int) Math.floor((i + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double nextX = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                nextX += timestamps[j] - timestamps[0];
+            }
+            nextX /= nextEnd - nextStart;
+            for (int s = 0; s < lines.length; s++) {
+                double sum = 0;
+                int count = 0;
+                for (int j = nextStart; j < nextEnd; j++) {
+                    if (!Double.isNaN(lines[s][j])) {
+                        sum += lines[s][j];
+                        count++;
+                    }
+                }
+                nextAvg[s] = count == 0 ? Double.NaN : sum / count;
+            }
+
+            int start = (int) Math.floor(i * every) + 1;
+            int end = (int) Math.floor((i + 1) * every) + 1;
+            double ax = timestamps[a] - timestamps[0];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int j = start; j < end; j++) {
+                double jx = timestamps[j] - timestamps[0];
+                double area = 0;
+                for (int s = 0; s < lines.length; s++) {
+                    double ay = lines[s][a];
+                    double jy = lines[s][j];
+                    if (Double.isNaN(ay) || Double.isNaN(jy) || Double.isNaN(nextAvg[s])) {
+                        continue;
+                    }
+                    area += Math.abs((ax - nextX) * (jy - ay) - (ax - jx) * (nextAvg[s] - ay))
+                        * scales[s];
+                }
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+            selected[i + 1] = maxIndex;
+            a = maxIndex;
+        }
+        selected[threshold - 1] = size - 1;
+        return selected;
+    }
+}
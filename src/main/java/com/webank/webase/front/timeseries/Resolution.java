@@ -0,0 +1,67 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+/**
+ * Resolution.
+ * raw samples and rollups of fixed interval kept by TimeSeriesStore.
+ * a block of each resolution covers about an hour or more, it is written to disk once sealed
+ */
+public enum Resolution {
+
+    RAW(0, 720),
+    MINUTE(60 * 1000L, 60),
+    TEN_MINUTES(10 * 60 * 1000L, 36),
+    HOUR(60 * 60 * 1000L, 24);
+
+    private final long interval;
+    private final int blockSize;
+
+    Resolution(long interval, int blockSize) {
+        this.interval = interval;
+        this.blockSize = blockSize;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public boolean isRollup() {
+        return interval > 0;
+    }
+
+    /**
+     * columns of a point, value of raw sample, or min/max/avg/count of rollup.
+     */
+    public int getColumns() {
+        return isRollup() ? 4 : 1;
+    }
+
+    /**
+     * the coarsest resolution whose interval is not greater than step.
+     */
+    public static Resolution forStep(long step) {
+        Resolution result = RAW;
+        for (Resolution resolution : values()) {
+            if (resolution.interval <= step) {
+                result = resolution;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Series.
+ * sealed blocks and the open block of each resolution.
+ * rollups are accumulated from raw samples as they are appended
+ */
+final class Series {
+
+    /**
+     * receives blocks once sealed.
+     */
+    interface BlockSink {
+        void onSealed(Series series, Resolution resolution, DataBlock block);
+    }
+
+    /**
+     * receives points of a scan in time order.
+     */
+    interface PointVisitor {
+        void visit(long timestamp, double min, double max, double avg, long count);
+    }
+
+    private final String name;
+    private final Map<Resolution, Level> levels = new EnumMap<>(Resolution.class);
+    private long lastTimestamp = Long.MIN_VALUE;
+    // appended or flushed since the last snapshot
+    private boolean changed;
+
+    Series(String name) {
+        this.name = name;
+        for (Resolution resolution : Resolution.values()) {
+            levels.put(resolution, new Level(resolution));
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * append a raw sample, samples not after the last one are ignored.
+     *
+     * @return false if ignored
+     */
+    synchronized boolean append(long timestamp, double value, BlockSink sink) {
+        if (timestamp <= lastTimestamp || Double.isNaN(value)) {
+            return false;
+        }
+        lastTimestamp = timestamp;
+        changed = true;
+        for (Level level : levels.values()) {
+            if (level.resolution.isRollup()) {
+                level.accumulate(timestamp, value, sink);
+            } else {
+                level.add(timestamp, new double[] {value}, sink);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * add a block loaded from disk.
+     */
+    synchronized void load(Resolution resolution, DataBlock block) {
+        levels.get(resolution).blocks.add(block);
+        if (!resolution.isRollup()) {
+            lastTimestamp = Math.max(lastTimestamp, block.getLastTime());
+        }
+    }
+
+    /**
+     * add points of a snapshot loaded from disk, after the sealed blocks are loaded.
+     * points not after the last sealed one were sealed since the snapshot and are dropped,
+     * the last point of a rollup is pending again.
+     */
+    synchronized void restore(Resolution resolution, DataBlock block, BlockSink sink) {
+        Level level = levels.get(resolution);
+        long after = level.blocks.isEmpty() ? Long.MIN_VALUE
+            : level.blocks.get(level.blocks.size() - 1).getLastTime();
+        long[] timestamps = new long[block.getSize()];
+        double[][] values = new double[resolution.getColumns()][block.getSize()];
+        block.decode(timestamps, values);
+        double[] point = new double[resolution.getColumns()];
+        for (int i = 0; i < block.getSize(); i++) {
+            if (timestamps[i] <= after) {
+                continue;
+            }
+            for (int c = 0; c < point.length; c++) {
+                point[c] = values[c][i];
+            }
+            if (resolution.isRollup() && i == block.getSize() - 1) {
+                level.pend(timestamps[i], point);
+            } else {
+                level.add(timestamps[i], point, sink);
+            }
+            after = timestamps[i];
+        }
+        if (!resolution.isRollup()) {
+            lastTimestamp = Math.max(lastTimestamp, after);
+        }
+        changed = true;
+    }
+
+    /**
+     * open points of each resolution, with the pending rollup as the last point,
+     * null for a resolution without any.
+     *
+     * @return null if nothing is appended or flushed since the last snapshot
+     */
+    synchronized Map<Resolution, DataBlock> snapshot() {
+        if (!changed) {
+            return null;
+        }
+        changed = false;
+        Map<Resolution, DataBlock> result = new EnumMap<>(Resolution.class);
+        for (Level level : levels.values()) {
+            result.put(level.resolution, level.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * seal open blocks and pending rollups.
+     */
+    synchronized void flush(BlockSink sink) {
+        changed = true;
+        for (Level level : levels.values()) {
+            level.emitBucket(sink);
+            level.seal(sink);
+        }
+    }
+
+    /**
+     * drop blocks that end before time.
+     *
+     * @return true if any block is dropped
+     */
+    synchronized boolean purge(Resolution resolution, long before) {
+        boolean removed = false;
+        Iterator<DataBlock> iterator = levels.get(resolution).blocks.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getLastTime() < before) {
+                iterator.remove();
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    synchronized List<DataBlock> getBlocks(Resolution resolution) {
+        return new ArrayList<>(levels.get(resolution).blocks);
+    }
+
+    /**
+     * first timestamp of raw samples, null if empty.
+     */
+    synchronized Long getFirstTimestamp() {
+        Level raw = levels.get(Resolution.RAW);
+        if (!raw.blocks.isEmpty()) {
+            return raw.blocks.get(0).getFirstTime();
+        }
+        return raw.size > 0 ? raw.timestamps[0] : null;
+    }
+
+    /**
+     * visit points of resolution between from and to, both inclusive.
+     */
+    synchronized void scan(Resolution resolution, long from, long to, PointVisitor visitor) {
+        Level level = levels.get(resolution);
+        long[] timestamps = new long[resolution.getBlockSize()];
+        double[][] values = new double[resolution.getColumns()][resolution.getBlockSize()];
+        for (DataBlock block : level.blocks) {
+            if (block.getLastTime() < from || block.getFirstTime() > to) {
+                continue;
+            }
+            if (block.getSize() > timestamps.length) {
+                timestamps = new long[block.getSize()];
+                values = new double[resolution.getColumns()][block.getSize()];
+            }
+            block.decode(timestamps, values);
+            visitRange(resolution, timestamps, values, block.getSize(), from, to, visitor);
+        }
+        visitRange(resolution, level.timestamps, level.values, level.size, from, to, visitor);
+        if (level.count > 0 && level.bucket >= from && level.bucket <= to) {
+            visitor.visit(level.bucket, level.min, level.max, level.sum / level.count,
+                level.count);
+        }
+    }
+
+    private static void visitRange(Resolution resolution, long[] timestamps, double[][] values,
+        int size, long from, long to, PointVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            long timestamp = timestamps[i];
+            if (timestamp < from || timestamp > to) {
+                continue;
+            }
+            if (resolution.isRollup()) {
+                visitor.visit(timestamp, values[0][i], values[1][i], values[2][i],
+                    (long) values[3][i]);
+            } else {
+                visitor.visit(timestamp, values[0][i], values[0][i], values[0][i], 1);
+            }
+        }
+    }
+
+    private final class Level {
+        private final Resolution resolution;
+        private final List<DataBlock> blocks = new ArrayList<>();
+        private final long[] timestamps;
+        private final double[][] values;
+        private int size;
+        // pending rollup bucket
+        private long bucket;
+        private double min;
+        private double max;
+        private double sum;
+        private long count;
+
+        Level(Resolution resolution) {
+            this.resolution = resolution;
+            this.timestamps = new long[resolution.getBlockSize()];
+            this.values = new double[resolution.getColumns()][resolution.getBlockSize()];
+        }
+
+        void add(long timestamp, double[] point, BlockSink sink) {
+            timestamps[size] = timestamp;
+            for (int c = 0; c < point.length; c++) {
+                values[c][size] = point[c];
+            }
+            if (++size == timestamps.length) {
+                seal(sink);
+            }
+        }
+
+        void accumulate(long timestamp, double value, BlockSink sink) {
+            long current = timestamp - Math.floorMod(timestamp, resolution.getInterval());
+            if (count > 0 && current != bucket) {
+                emitBucket(sink);
+            }
+            if (count == 0) {
+                bucket = current;
+                min = value;
+                max = value;
+                sum = 0;
+            }
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+        }
+
+        void emitBucket(BlockSink sink) {
+            if (count == 0) {
+                return;
+            }
+            add(bucket, new double[] {min, max, sum / count, count}, sink);
+            count = 0;
+        }
+
+        void pend(long timestamp, double[] point) {
+            bucket = timestamp;
+            min = point[0];
+            max = point[1];
+            count = (long) point[3];
+            sum = point[2] * count;
+        }
+
+        DataBlock snapshot() {
+            int total = size + (count > 0 ? 1 : 0);
+            if (total == 0) {
+                return null;
+            }
+            long[] snapshotTimestamps = Arrays.copyOf(timestamps, total);
+            double[][] snapshotValues = new double[values.length][];
+            for (int c = 0; c < values.length; c++) {
+                snapshotValues[c] = Arrays.copyOf(values[c], total);
+            }
+            if (count > 0) {
+                snapshotTimestamps[size] = bucket;
+                snapshotValues[0][size] = min;
+                snapshotValues[1][size] = max;
+                snapshotValues[2][size] = sum / count;
+                snapshotValues[3][size] = count;
+            }
+            return DataBlock.encode(snapshotTimestamps, snapshotValues, total);
+        }
+
+        void seal(BlockSink sink) {
+            if (size == 0) {
+                return;
+            }
+            DataBlock block = DataBlock.encode(timestamps, values, size);
+            blocks.add(block);
+            size = 0;
+            sink.onSealed(Series.this, resolution, block);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SeriesRange.
+ * points of a range at a fixed step, a step without sample is NaN.
+ */
+public final class SeriesRange {
+
+    private final Resolution resolution;
+    private final long step;
+    private final long[] timestamps;
+    private final double[] min;
+    private final double[] max;
+    private final double[] avg;
+
+    SeriesRange(Resolution resolution, long step, long[] timestamps, double[] min, double[] max,
+        double[] avg) {
+        this.resolution = resolution;
+        this.step = step;
+        this.timestamps = timestamps;
+        this.min = min;
+        this.max = max;
+        this.avg = avg;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public long getStep() {
+        return step;
+    }
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public double[] getMin() {
+        return min;
+    }
+
+    public double[] getMax() {
+        return max;
+    }
+
+    public double[] getAvg() {
+        return avg;
+    }
+
+    public List<Long> getTimestampList() {
+        List<Long> list = new ArrayList<>(timestamps.length);
+        for (long timestamp : timestamps) {
+            list.add(timestamp);
+        }
+        return list;
+    }
+
+    /**
+     * average of each step, null if the step has no sample.
+     */
+    public List<BigDecimal> getAvgList() {
+        List<BigDecimal> list = new ArrayList<>(avg.length);
+        for (double value : avg) {
+            list.add(Double.isNaN(value) ? null : BigDecimal.valueOf(value));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,383 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.timeseries;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.metrics.MetricsSource;
+import com.webank.webase.front.performance.result.LineDataList;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * TimeSeriesStore.
+ * samples of monitor, performance and situation by series name, like "performance.cpu".
+ * raw samples and 1m/10m/1h rollups (min/max/avg) are kept in memory as encoded blocks,
+ * a sealed block is appended to the file of its series and resolution,
+ * blocks still open are written to tail files per minute and sealed at shutdown.
+ */
+@Slf4j
+@Component
+public class TimeSeriesStore implements MetricsSource, Series.BlockSink {
+
+    private static final String BLOCK_FILE_SUFFIX = ".blk";
+    private static final String TAIL_FILE_SUFFIX = ".tail";
+    private static final String META_FILE = "store.meta";
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_.\\-]+");
+
+    @Autowired
+    private Constants constants;
+
+    private final Map<String, Series> seriesMap = new ConcurrentHashMap<>();
+    private File directory;
+    private long startTime;
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong ignoreCount = new AtomicLong();
+    private final AtomicLong writeFailCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = new File(constants.getTimeSeriesPath());
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("create time series directory fail: " + directory);
+        }
+        File meta = new File(directory, META_FILE);
+        if (meta.isFile()) {
+            startTime = Long.parseLong(
+                new String(Files.readAllBytes(meta.toPath()), StandardCharsets.UTF_8).trim());
+        } else {
+            startTime = System.currentTimeMillis();
+            Files.write(meta.toPath(),
+                String.valueOf(startTime).getBytes(StandardCharsets.UTF_8));
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(BLOCK_FILE_SUFFIX));
+        for (File file : files == null ? new File[0] : files) {
+            loadFile(file, BLOCK_FILE_SUFFIX);
+        }
+        // open blocks of the last snapshot, after the sealed ones
+        File[] tails = directory.listFiles((dir, name) -> name.endsWith(TAIL_FILE_SUFFIX));
+        for (File file : tails == null ? new File[0] : tails) {
+            loadFile(file, TAIL_FILE_SUFFIX);
+        }
+        log.info("time series store loaded. path:{} series:{} startTime:{}", directory,
+            seriesMap.size(), startTime);
+    }
+
+    private void loadFile(File file, String suffix) {
+        String fileName = file.getName();
+        String key = fileName.substring(0, fileName.length() - suffix.length());
+        int dot = key.lastIndexOf('.');
+        Resolution resolution;
+        try {
+            resolution = Resolution.valueOf(key.substring(dot + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            log.warn("skip unknown time series file:{}", file);
+            return;
+        }
+        Series series = getSeries(key.substring(0, dot));
+        try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(new FileInputStream(file)))) {
+            if (TAIL_FILE_SUFFIX.equals(suffix)) {
+                series.restore(resolution, DataBlock.readFrom(in), this);
+                return;
+            }
+            while (true) {
+                series.load(resolution, DataBlock.readFrom(in));
+            }
+        } catch (EOFException e) {
+            // end of file, a partly written block at the end is dropped
+        } catch (IOException e) {
+            log.warn("load time series file fail:{}", file, e);
+        }
+    }
+
+    private Series getSeries(String name) {
+        return seriesMap.computeIfAbsent(name, Series::new);
+    }
+
+    private File getFile(String name, Resolution resolution, String suffix) {
+        return new File(directory, name + "." + resolution.name() + suffix);
+    }
+
+    /**
+     * append a sample, null value is ignored.
+     *
+     * @param name series name of letters, digits, '_', '-' and '.'
+     */
+    public void append(String name, long timestamp, Number value) {
+        if (value == null) {
+            return;
+        }
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("invalid series name: " + name);
+        }
+        if (getSeries(name).append(timestamp, value.doubleValue(), this)) {
+            appendCount.incrementAndGet();
+        } else {
+            ignoreCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * called while the series is locked, nothing holding the store lock may lock a series.
+     */
+    @Override
+    public synchronized void onSealed(Series series, Resolution resolution, DataBlock block) {
+        File file = getFile(series.getName(), resolution, BLOCK_FILE_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            block.writeTo(out);
+        } catch (IOException e) {
+            writeFailCount.incrementAndGet();
+            log.warn("write time series block fail:{}", file, e);
+        }
+    }
+
+    /**
+     * whether samples from time on are all in the store,
+     * samples before the store started are only in the database.
+     */
+    public boolean covers(long time) {
+        return time >= startTime;
+    }
+
+    /**
+     * query points from from to to at step.
+     * the coarsest resolution whose interval is not greater than step is read,
+     * and its points are merged into steps.
+     *
+     * @param step millis between points, enlarged if the range has too many points
+     */
+    public SeriesRange query(String name, long from, long to, long step) {
+        step = ChartLines.limitStep(from, to, step);
+        int size = (int) (Math.max(0, to - from) / step) + 1;
+        long[] timestamps = new long[size];
+        double[] min = new double[size];
+        double[] max = new double[size];
+        double[] avg = new double[size];
+        long[] counts = new long[size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = from + i * step;
+        }
+        Arrays.fill(min, Double.NaN);
+        Arrays.fill(max, Double.NaN);
+        Resolution resolution = Resolution.forStep(step);
+        Series series = seriesMap.get(name);
+        if (series != null) {
+            final long finalStep = step;
+            series.scan(resolution, from, to, (timestamp, pointMin, pointMax, pointAvg, count) -> {
+                int i = (int) ((timestamp - from) / finalStep);
+                min[i] = Double.isNaN(min[i]) ? pointMin : Math.min(min[i], pointMin);
+                max[i] = Double.isNaN(max[i]) ? pointMax : Math.max(max[i], pointMax);
+                avg[i] += pointAvg * count;
+                counts[i] += count;
+            });
+        }
+        for (int i = 0; i < size; i++) {
+            avg[i] = counts[i] == 0 ? Double.NaN : avg[i] / counts[i];
+        }
+        return new SeriesRange(resolution, step, timestamps, min, max, avg);
+    }
+
+    /**
+     * query average lines of series sharing timestamps, downsampled to chartMaxPoints.
+     */
+    public List<LineDataList> queryLines(List<String> names, long from, long to, long step) {
+        long[] timestamps = new long[0];
+        double[][] lines = new double[names.size()][];
+        for (int i = 0; i < names.size(); i++) {
+            SeriesRange seriesRange = query(names.get(i), from, to, step);
+            timestamps = seriesRange.getTimestamps();
+            lines[i] = seriesRange.getAvg();
+        }
+        return ChartLines.downsample(timestamps, lines, constants.getChartMaxPoints());
+    }
+
+    /**
+     * lines of a range from the store,
+     * or from a grouped query of database if the range starts before the store.
+     *
+     * @param dbQuery grouped query of the same lines, rows as read by ChartLines.fromBuckets
+     * @return lines without points if from or to is null
+     */
+    public List<LineDataList> queryLines(List<String> names, Long from, Long to, long step,
+        BucketQuery dbQuery) {
+        if (from == null || to == null) {
+            return ChartLines.empty(names.size());
+        }
+        if (covers(from)) {
+            return queryLines(names, from, to, step);
+        }
+        step = ChartLines.limitStep(from, to, step);
+        return ChartLines.fromBuckets(dbQuery.query(from, to, step), from, to, step,
+            names.size(), constants.getChartMaxPoints());
+    }
+
+    /**
+     * grouped query of database by buckets of step millis.
+     */
+    public interface BucketQuery {
+
+        List<Object[]> query(Long from, Long to, Long step);
+    }
+
+    /**
+     * drop expired blocks and rewrite their files at 00:00:00 per day.
+     */
+    @Scheduled(cron = "0 0 0 * * ?")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        for (Series series : seriesMap.values()) {
+            for (Resolution resolution : Resolution.values()) {
+                int days = resolution.isRollup() ? constants.getTimeSeriesRollupRetention()
+                    : constants.getTimeSeriesRawRetention();
+                if (series.purge(resolution, now - TimeUnit.DAYS.toMillis(days))) {
+                    rewrite(series, resolution);
+                }
+            }
+        }
+    }
+
+    /**
+     * locks are taken series first then store, the order of a block sealed in Series.append,
+     * so that no block is sealed between copying blocks and replacing the file.
+     */
+    private void rewrite(Series series, Resolution resolution) {
+        synchronized (series) {
+            List<DataBlock> blocks = series.getBlocks(resolution);
+            synchronized (this) {
+                writeBlocks(series, resolution, blocks);
+            }
+        }
+    }
+
+    private void writeBlocks(Series series, Resolution resolution, List<DataBlock> blocks) {
+        File file = getFile(series.getName(), resolution, BLOCK_FILE_SUFFIX);
+        File tmp = new File(directory, file.getName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                for (DataBlock block : blocks) {
+                    block.writeTo(out);
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            writeFailCount.incrementAndGet();
+            log.warn("rewrite time series file fail:{}", file, e);
+        }
+    }
+
+    /**
+     * write open blocks to tail files per minute,
+     * so that samples not sealed yet are loaded again after an unclean exit.
+     */
+    @Scheduled(cron = "30 * * * * ?")
+    public void snapshot() {
+        for (Series series : seriesMap.values()) {
+            Map<Resolution, DataBlock> blocks = series.snapshot();
+            if (blocks == null) {
+                continue;
+            }
+            for (Map.Entry<Resolution, DataBlock> entry : blocks.entrySet()) {
+                writeTail(series, entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private synchronized void writeTail(Series series, Resolution resolution, DataBlock block) {
+        File file = getFile(series.getName(), resolution, TAIL_FILE_SUFFIX);
+        File tmp = new File(directory, file.getName() + ".tmp");
+        try {
+            if (block == null) {
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                block.writeTo(out);
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            writeFailCount.incrementAndGet();
+            log.warn("write time series tail fail:{}", file, e);
+        }
+    }
+
+    /**
+     * seal open blocks so that they are written before exit, their tail files are removed.
+     */
+    @PreDestroy
+    public void flush() {
+        for (Series series : seriesMap.values()) {
+            series.flush(this);
+        }
+        snapshot();
+    }
+
+    @Override
+    public String getName() {
+        return "timeSeries";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long blocks = 0;
+        long points = 0;
+        long bytes = 0;
+        for (Series series : seriesMap.values()) {
+            for (Resolution resolution : Resolution.values()) {
+                for (DataBlock block : series.getBlocks(resolution)) {
+                    blocks++;
+                    points += block.getSize();
+                    bytes += block.getEncodedSize();
+                }
+            }
+        }
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("series", seriesMap.size());
+        metrics.put("sealedBlocks", blocks);
+        metrics.put("sealedPoints", points);
+        metrics.put("sealedBytes", bytes);
+        metrics.put("appended", appendCount.get());
+        metrics.put("ignored", ignoreCount.get());
+        metrics.put("writeFailed", writeFailCount.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.transaction;
+
+import lombok.Getter;
+
+/**
+ * NodeMetadata.
+ * version and transaction format of the nodes of one group.
+ */
+@Getter
+public class NodeMetadata {
+
+    private final int groupId;
+    private final String versionContent;
+    private final TransactionBuilder transactionBuilder;
+    private final long updateTime;
+
+    public NodeMetadata(int groupId, String versionContent) {
+        this.groupId = groupId;
+        this.versionContent = versionContent;
+        this.transactionBuilder = TransactionBuilder.of(versionContent, groupId);
+        this.updateTime = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.transaction;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * NodeMetadataCache.
+ * node metadata by groupId, loaded on first use and refreshed every minute,
+ * so that sending transactions needs no getNodeVersion request.
+ */
+@Slf4j
+@Component
+public class NodeMetadataCache {
+
+    @Autowired
+    private Map<Integer, Web3j> web3jMap;
+    @Autowired
+    @Qualifier("metadataExecutor")
+    private ThreadPoolTaskExecutor metadataExecutor;
+
+    private final Map<Integer, NodeMetadata> metadataMap = new ConcurrentHashMap<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * get metadata of group, request the node if not cached.
+     * concurrent callers of a group not cached share one request
+     */
+    public NodeMetadata get(int groupId, Web3j web3j) {
+        return metadataMap.computeIfAbsent(groupId, k -> load(k, web3j));
+    }
+
+    /**
+     * start a refresh on metadataExecutor if the last one has finished,
+     * so that the scheduler thread does not wait on nodes.
+     */
+    @Scheduled(cron = "30 * * * * ?")
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            metadataExecutor.execute(() -> {
+                try {
+                    refreshAll();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * refresh metadata of cached groups, keep the old one on failure.
+     */
+    void refreshAll() {
+        for (Integer groupId : metadataMap.keySet()) {
+            Web3j web3j = web3jMap.get(groupId);
+            if (web3j == null) {
+                metadataMap.remove(groupId);
+                continue;
+            }
+            try {
+                metadataMap.put(groupId, load(groupId, web3j));
+            } catch (Exception e) {
+                log.warn("refresh node metadata fail. groupId:{}", groupId, e);
+            }
+        }
+    }
+
+    private NodeMetadata load(int groupId, Web3j web3j) {
+        try {
+            String versionContent = web3j.getNodeVersion().sendForReturnString();
+            log.info("load node metadata. groupId:{} version:{}", groupId, versionContent);
+            return new NodeMetadata(groupId, versionContent);
+        } catch (IOException e) {
+            log.error("load node metadata fail. groupId:{}", groupId, e);
+            throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
+        }
+    }
+}
@@ -18,20 +18,28 @@ package com.webank.webase.front.transaction;
 import com.alibaba.fastjson.JSON;
 import com.webank.webase.front.base.controller.BaseController;
 import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.transaction.entity.ReqTransBatch;
 import com.webank.webase.front.transaction.entity.ReqTransHandle;
 import com.webank.webase.front.transaction.entity.ReqTransHandleWithSign;
+import com.webank.webase.front.transaction.entity.RspTransBatch;
+import com.webank.webase.front.transaction.entity.RspTransReceipt;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiOperation;
+import java.util.List;
 import javax.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import static com.webank.webase.front.base.code.ConstantCode.VERSION_AND_ADDRESS_CANNOT_ALL_BE_NULL;
 
@@ -83,4 +91,41 @@ public class TransController extends BaseController {
         checkParamResult(result);
         return transServiceImpl.transHandleWithSign(req);
     }
+
+    /**
+     * transBatch.
+     * send transactions concurrently and return result of each one in order
+     *
+     * @param req request
+     * @param result checkResult
+     * @return
+     */
+    @ApiOperation(value = "batch transaction handing", notes = "batch transaction handing")
+    @ApiImplicitParam(name = "req", value = "transaction list", required = true, dataType = "ReqTransBatch")
+    @PostMapping("/batch")
+    public List<RspTransBatch> transBatch(@Valid @RequestBody ReqTransBatch req, BindingResult result) {
+        log.info("transBatch start. size:{}", req.getTransList() == null ? 0 : req.getTransList().size());
+        checkParamResult(result);
+        for (ReqTransHandle trans : req.getTransList()) {
+            if (StringUtils.isBlank(trans.getVersion()) && StringUtils.isBlank(trans.getContractAddress())) {
+                throw new FrontException(VERSION_AND_ADDRESS_CANNOT_ALL_BE_NULL);
+            }
+        }
+        return transServiceImpl.transBatch(req);
+    }
+
+    /**
+     * getTransReceipt.
+     * receipt of async transaction, long-poll when waitSeconds is greater than 0
+     *
+     * @param transHash hash
+     * @param waitSeconds max seconds to wait for pending transaction
+     * @return
+     */
+    @ApiOperation(value = "get receipt of async transaction", notes = "get receipt of async transaction")
+    @GetMapping("/receipt/{transHash}")
+    public DeferredResult<RspTransReceipt> getTransReceipt(@PathVariable String transHash,
+            @RequestParam(defaultValue = "0") int waitSeconds) {
+        return transServiceImpl.getTransReceipt(transHash, waitSeconds);
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.transaction;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.transaction.entity.RspTransReceipt;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * registry of async transactions.
+ * keep the receipt future of each transaction by transHash, at most receiptCacheSize entries.
+ * finished entries are kept for receiptKeepTime seconds.
+ * callbackUrl must be http(s) to a host in callbackHosts, posted by callbackExecutor
+ */
+@Slf4j
+@Component
+public class TransReceiptRegistry {
+
+    @Autowired
+    private Constants constants;
+    @Autowired
+    private RestTemplate restTemplate;
+    @Autowired
+    @Qualifier("callbackExecutor")
+    private ThreadPoolTaskExecutor callbackExecutor;
+
+    private final Map<String, TransEntry> transMap = new ConcurrentHashMap<>();
+
+    /**
+     * register a transaction before sending it.
+     * 
+     * @param transHash hash of the signed transaction
+     * @param future completed by receipt callback
+     * @param callbackUrl notified with RspTransReceipt when finished, nullable
+     */
+    public void register(String transHash, CompletableFuture<TransactionReceipt> future,
+            String callbackUrl) {
+        if (StringUtils.isNotBlank(callbackUrl) && !isCallbackAllowed(callbackUrl)) {
+            log.warn("register fail. callbackUrl not allowed:{}", callbackUrl);
+            throw new FrontException(ConstantCode.CALLBACK_URL_INVALID);
+        }
+        if (transMap.size() >= constants.getReceiptCacheSize()) {
+            removeExpired();
+            if (transMap.size() >= constants.getReceiptCacheSize()) {
+                log.warn("register fail. registry is full, size:{}", transMap.size());
+                throw new FrontException(ConstantCode.TRANS_PENDING_EXCEED);
+            }
+        }
+        TransEntry entry = new TransEntry(future);
+        transMap.put(transHash, entry);
+        future.whenComplete((receipt, ex) -> {
+            entry.finishTime = System.currentTimeMillis();
+            if (StringUtils.isNotBlank(callbackUrl)) {
+                try {
+                    callbackExecutor.execute(() -> notifyCallback(callbackUrl, transHash, future));
+                } catch (TaskRejectedException e) {
+                    log.warn("notifyCallback dropped, pool is full. url:{} transHash:{}",
+                            callbackUrl, transHash);
+                }
+            }
+        });
+    }
+
+    /**
+     * http or https url whose host, or host:port, is in callbackHosts.
+     */
+    boolean isCallbackAllowed(String callbackUrl) {
+        URI uri;
+        try {
+            uri = new URI(callbackUrl);
+        } catch (Exception e) {
+            return false;
+        }
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (host == null || uri.getUserInfo() != null
+                || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+            return false;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        String hostPort = host + ":" + (uri.getPort() == -1
+                ? ("https".equalsIgnoreCase(scheme) ? 443 : 80) : uri.getPort());
+        for (String allowed : constants.getCallbackHosts()) {
+            String entry = allowed.trim().toLowerCase(Locale.ROOT);
+            if (!entry.isEmpty() && (entry.equals(host) || entry.equals(hostPort))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * get future of receipt, null if not exist or expired.
+     */
+    public CompletableFuture<TransactionReceipt> getFuture(String transHash) {
+        TransEntry entry = transMap.get(transHash);
+        return entry == null ? null : entry.future;
+    }
+
+    /**
+     * current state of transaction.
+     */
+    public static RspTransReceipt toRspTransReceipt(String transHash,
+            CompletableFuture<TransactionReceipt> future) {
+        if (!future.isDone()) {
+            return new RspTransReceipt(transHash, RspTransReceipt.STATUS_PENDING, null);
+        }
+        if (future.isCompletedExceptionally()) {
+            return new RspTransReceipt(transHash, RspTransReceipt.STATUS_FAIL, null);
+        }
+        return new RspTransReceipt(transHash, RspTransReceipt.STATUS_SUCCESS, future.join());
+    }
+
+    /**
+     * post result to callbackUrl.
+     */
+    private void notifyCallback(String callbackUrl, String transHash,
+            CompletableFuture<TransactionReceipt> future) {
+        try {
+            restTemplate.postForObject(callbackUrl, toRspTransReceipt(transHash, future),
+                    String.class);
+        } catch (Exception e) {
+            log.warn("notifyCallback fail. url:{} transHash:{}", callbackUrl, transHash, e);
+        }
+    }
+
+    /**
+     * remove expired entries.
+     * finished entries expire after receiptKeepTime,
+     * pending ones fail after transMaxWait and then expire as finished ones
+     */
+    @Scheduled(cron = "0/10 * * * * ?")
+    public void removeExpired() {
+        long now = System.currentTimeMillis();
+        long keepMillis = TimeUnit.SECONDS.toMillis(constants.getReceiptKeepTime());
+        long waitMillis = TimeUnit.SECONDS.toMillis(constants.getTransMaxWait());
+        Iterator<TransEntry> iterator = transMap.values().iterator();
+        while (iterator.hasNext()) {
+            TransEntry entry = iterator.next();
+            if (entry.finishTime > 0) {
+                if (now - entry.finishTime > keepMillis) {
+                    iterator.remove();
+                }
+            } else if (now - entry.createTime > waitMillis) {
+                entry.future.completeExceptionally(new TimeoutException("wait receipt timeout"));
+            }
+        }
+    }
+
+    private static class TransEntry {
+        private final CompletableFuture<TransactionReceipt> future;
+        private final long createTime = System.currentTimeMillis();
+        private volatile long finishTime;
+
+        private TransEntry(CompletableFuture<TransactionReceipt> future) {
+            this.future = future;
+        }
+    }
+}
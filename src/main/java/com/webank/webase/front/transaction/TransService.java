@@ -22,10 +22,18 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import com.webank.webase.front.base.code.RetCode;
+import com.webank.webase.front.transaction.entity.ReqTransBatch;
 import com.webank.webase.front.transaction.entity.ReqTransHandle;
 import com.webank.webase.front.transaction.entity.ReqTransHandleWithSign;
+import com.webank.webase.front.transaction.entity.RspTransBatch;
+import com.webank.webase.front.transaction.entity.RspTransReceipt;
+import com.webank.webase.front.transaction.TransactionBuilder.UnsignedTransaction;
 import org.apache.commons.lang3.StringUtils;
 import org.fisco.bcos.channel.client.TransactionSucCallback;
 import org.fisco.bcos.web3j.abi.FunctionEncoder;
@@ -34,11 +42,8 @@ import org.fisco.bcos.web3j.abi.TypeReference;
 import org.fisco.bcos.web3j.abi.datatypes.Function;
 import org.fisco.bcos.web3j.abi.datatypes.Type;
 import org.fisco.bcos.web3j.crypto.Credentials;
-import org.fisco.bcos.web3j.crypto.ExtendedRawTransaction;
-import org.fisco.bcos.web3j.crypto.ExtendedTransactionEncoder;
-import org.fisco.bcos.web3j.crypto.RawTransaction;
+import org.fisco.bcos.web3j.crypto.Hash;
 import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
-import org.fisco.bcos.web3j.crypto.TransactionEncoder;
 import org.fisco.bcos.web3j.precompile.cns.CnsInfo;
 import org.fisco.bcos.web3j.precompile.cns.CnsService;
 import org.fisco.bcos.web3j.protocol.ObjectMapperFactory;
@@ -55,23 +60,25 @@ import org.fisco.bcos.web3j.tx.gas.ContractGasProvider;
 import org.fisco.bcos.web3j.tx.gas.StaticGasProvider;
 import org.fisco.bcos.web3j.utils.Numeric;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
 import com.alibaba.fastjson.JSON;
-import com.alibaba.fastjson.JSONObject;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webank.webase.front.base.code.ConstantCode;
 import com.webank.webase.front.base.properties.Constants;
-import com.webank.webase.front.base.enums.KeyTypes;
 import com.webank.webase.front.base.exception.FrontException;
 import com.webank.webase.front.contract.CommonContract;
 import com.webank.webase.front.contract.ContractRepository;
 import com.webank.webase.front.contract.entity.Contract;
 import com.webank.webase.front.keystore.entity.EncodeInfo;
-import com.webank.webase.front.keystore.entity.KeyStoreInfo;
 import com.webank.webase.front.keystore.KeyStoreService;
 import com.webank.webase.front.util.AbiUtil;
 import com.webank.webase.front.util.CommonUtils;
 import com.webank.webase.front.util.ContractAbiUtil;
+import com.webank.webase.front.util.FunctionCodec;
+import com.webank.webase.front.util.FunctionDescriptor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -94,6 +101,13 @@ public class TransService {
     private Constants constants;
     @Autowired
     private ContractRepository contractRepository;
+    @Autowired
+    @Qualifier("transExecutor")
+    private ThreadPoolTaskExecutor transExecutor;
+    @Autowired
+    private TransReceiptRegistry transReceiptRegistry;
+    @Autowired
+    private NodeMetadataCache nodeMetadataCache;
 
     /**
      * transHandle.
@@ -101,6 +115,20 @@ public class TransService {
      * @param req request
      */
     public Object transHandle(ReqTransHandle req) throws Exception {
+        checkContractAbi(req);
+        // handle calling contract's method/function
+        Object baseRsp = dealWithtrans(req);
+        log.info("transHandle end. name:{} func:{} baseRsp:{}", req.getContractName(),
+                req.getFuncName(), JSON.toJSONString(baseRsp));
+        return baseRsp;
+    }
+
+    /**
+     * checkContractAbi.
+     * load contract's abi from cache, cns or db
+     * @param req request
+     */
+    private void checkContractAbi(ReqTransHandle req) throws Exception {
         boolean ifExisted;
         // check if contractAbi existed in cache
         if (req.getVersion() != null) {
@@ -123,11 +151,91 @@ public class TransService {
         if (!ifExisted) {
             throw new FrontException(ConstantCode.ABI_GET_ERROR);
         }
-        // handle calling contract's method/function
-        Object baseRsp = dealWithtrans(req);
-        log.info("transHandle end. name:{} func:{} baseRsp:{}", req.getContractName(),
-                req.getFuncName(), JSON.toJSONString(baseRsp));
-        return baseRsp;
+    }
+
+    /**
+     * transBatch.
+     * encode, sign and send all transactions concurrently without waiting receipts one by one,
+     * then collect receipts together within transMaxWait.
+     * @param req request
+     */
+    public List<RspTransBatch> transBatch(ReqTransBatch req) {
+        List<ReqTransHandle> transList = req.getTransList();
+        if (transList.size() > constants.getTransBatchMaxSize()) {
+            log.warn("transBatch fail. size:{} maxSize:{}", transList.size(),
+                    constants.getTransBatchMaxSize());
+            throw new FrontException(ConstantCode.TRANS_BATCH_SIZE_EXCEED);
+        }
+        // send
+        List<CompletableFuture<?>> futureList = new ArrayList<>(transList.size());
+        for (ReqTransHandle trans : transList) {
+            futureList.add(CompletableFuture.supplyAsync(() -> sendTransAsync(trans), transExecutor)
+                    .thenCompose(future -> future));
+        }
+        // collect
+        long deadline = System.currentTimeMillis()
+                + TimeUnit.SECONDS.toMillis(constants.getTransMaxWait());
+        List<RspTransBatch> rspList = new ArrayList<>(futureList.size());
+        for (int i = 0; i < futureList.size(); i++) {
+            rspList.add(collectTransResult(i, futureList.get(i), deadline));
+        }
+        log.info("transBatch end. size:{}", rspList.size());
+        return rspList;
+    }
+
+    /**
+     * sendTransAsync.
+     * constant function is called directly, others return future of receipt
+     * @param req request
+     */
+    private CompletableFuture<?> sendTransAsync(ReqTransHandle req) {
+        try {
+            checkContractAbi(req);
+            ResolvedTrans trans = resolveTrans(req);
+            if (trans.descriptor.isConstant()) {
+                return CompletableFuture.completedFuture(execCall(trans.descriptor.getCodec(),
+                        trans.web3j, trans.address, trans.function));
+            }
+            // sign and send
+            Credentials credentials = keyStoreService.getCredentials(req.getUser(), req.getUseAes());
+            String signMsg = signMessage(req.getGroupId(), trans.web3j, credentials, trans.address,
+                    FunctionEncoder.encode(trans.function));
+            CompletableFuture<TransactionReceipt> transFuture = new CompletableFuture<>();
+            sendMessage(trans.web3j, signMsg, transFuture);
+            return transFuture;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * collectTransResult.
+     * wait for one result of transBatch until deadline
+     */
+    private RspTransBatch collectTransResult(int index, CompletableFuture<?> future,
+            long deadline) {
+        try {
+            long waitMillis = Math.max(deadline - System.currentTimeMillis(), 0);
+            Object data = future.get(waitMillis, TimeUnit.MILLISECONDS);
+            return new RspTransBatch(index, ConstantCode.RET_SUCCEED, data);
+        } catch (TimeoutException e) {
+            log.warn("transBatch wait receipt timeout. index:{}", index);
+            return new RspTransBatch(index, ConstantCode.TRANS_RECEIPT_TIMEOUT, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new RspTransBatch(index, ConstantCode.SYSTEM_ERROR, null);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FrontException
+                    && ((FrontException) cause).getRetCode() != null) {
+                return new RspTransBatch(index, ((FrontException) cause).getRetCode(), null);
+            }
+            log.error("transBatch fail. index:{}", index, cause);
+            return new RspTransBatch(index, RetCode.mark(
+                    ConstantCode.TRANSACTION_SEND_FAILED.getCode(), cause.getMessage()), null);
+        }
     }
 
     /**
@@ -139,7 +247,6 @@ public class TransService {
         int groupId = req.getGroupId();
         int signUserId = req.getSignUserId();
         String contractAddress = req.getContractAddress();
-        String contractAbi = JSON.toJSONString(req.getContractAbi());
         String funcName = req.getFuncName();
         List<Object> params = req.getFuncParam();
 
@@ -149,13 +256,14 @@ public class TransService {
             throw new FrontException(ConstantCode.CONTRACT_ADDRESS_NULL);
         }
         // check function name
-        AbiDefinition abiDefinition = AbiUtil.getAbiDefinition(funcName, contractAbi);
-        if (abiDefinition == null) {
+        FunctionDescriptor descriptor =
+                AbiUtil.getParsedAbi(req.getContractAbi()).getDescriptor(funcName);
+        if (descriptor == null) {
             log.warn("transHandleWithSign fail. func:{} is not existed", funcName);
             throw new FrontException(ConstantCode.IN_FUNCTION_ERROR);
         }
         // check function parameter
-        List<String> funcInputTypes = AbiUtil.getFuncInputType(abiDefinition);
+        List<String> funcInputTypes = descriptor.getInputTypes();
         if (funcInputTypes.size() != params.size()) {
             log.warn("save fail. funcInputTypes:{}, params:{}", funcInputTypes, params);
             throw new FrontException(ConstantCode.IN_FUNCPARAM_ERROR);
@@ -165,43 +273,38 @@ public class TransService {
         if (web3j == null) {
             new FrontException(GROUPID_NOT_EXIST);
         }
-        // input format
-        List<Type> finalInputs = AbiUtil.inputFormat(funcInputTypes, params);
-        // output format
-        List<String> funOutputTypes = AbiUtil.getFuncOutputType(abiDefinition);
-        List<TypeReference<?>> finalOutputs = AbiUtil.outputFormat(funOutputTypes);
         // encode function
-        Function function = new Function(funcName, finalInputs, finalOutputs);
-        String encodedFunction = FunctionEncoder.encode(function);
+        FunctionCodec codec = descriptor.getCodec();
+        Function function = codec.buildFunction(params);
 
         // trans handle
         Object response = "";
-        if (abiDefinition.isConstant()) {
-            KeyStoreInfo keyStoreInfo = keyStoreService.createKeyStore(false, KeyTypes.LOCALRANDOM.getValue(), "");
-            String callOutput = web3j
-                    .call(Transaction.createEthCallTransaction(keyStoreInfo.getAddress(),
-                            contractAddress, encodedFunction), DefaultBlockParameterName.LATEST)
-                    .send().getValue().getOutput();
-            List<Type> typeList =
-                    FunctionReturnDecoder.decode(callOutput, function.getOutputParameters());
+        if (descriptor.isConstant()) {
+            List<Type> typeList = callFunction(web3j, contractAddress, function);
             if (typeList.size() > 0) {
-                response = AbiUtil.callResultParse(funOutputTypes, typeList);
+                response = codec.decodeOutputs(typeList);
             } else {
                 response = typeList;
             }
         } else {
             // data sign
+            String encodedFunction = FunctionEncoder.encode(function);
             String signMsg =
                     signMessage(groupId, web3j, signUserId, contractAddress, encodedFunction);
             if (StringUtils.isBlank(signMsg)) {
                 throw new FrontException(ConstantCode.DATA_SIGN_ERROR);
             }
             // send transaction
-            final CompletableFuture<TransactionReceipt> transFuture = new CompletableFuture<>();
-            sendMessage(web3j, signMsg, transFuture);
-            TransactionReceipt receipt =
-                    transFuture.get(constants.getTransMaxWait(), TimeUnit.SECONDS);
-            response = receipt;
+            if (req.isAsync()) {
+                response = sendMessageAsync(web3j, signMsg, req.getCallbackUrl());
+            } else {
+                final CompletableFuture<TransactionReceipt> transFuture =
+                        new CompletableFuture<>();
+                sendMessage(web3j, signMsg, transFuture);
+                TransactionReceipt receipt =
+                        transFuture.get(constants.getTransMaxWait(), TimeUnit.SECONDS);
+                response = receipt;
+            }
         }
 
         log.info("transHandleWithSign end. func:{} baseRsp:{}", req.getFuncName(),
@@ -263,7 +366,7 @@ public class TransService {
         ObjectMapper objectMapper = ObjectMapperFactory.getObjectMapper();
         List<AbiDefinition> abiDefinitionList = objectMapper.readValue(contract.getContractAbi(), 
                 objectMapper.getTypeFactory().constructCollectionType(List.class, AbiDefinition.class));
-        ContractAbiUtil.setFunctionFromAbi(req.getContractName(), req.getContractPath(), abiDefinitionList, new ArrayList<>());
+        ContractAbiUtil.setFunctionFromAbi(req.getContractName(), req.getContractPath(), abiDefinitionList);
         return true;
     }
 
@@ -275,70 +378,62 @@ public class TransService {
      */
     public Object dealWithtrans(ReqTransHandle req) throws FrontException {
         log.info("dealWithtrans start. ReqTransHandle:[{}]", JSON.toJSONString(req));
-        Object result = null;
+        ResolvedTrans trans = resolveTrans(req);
+        // constant function is called by query identity directly
+        if (trans.descriptor.isConstant()) {
+            return execCall(trans.descriptor.getCodec(), trans.web3j, trans.address,
+                    trans.function);
+        }
+
+        // contract load
+        Credentials credentials = keyStoreService.getCredentials(req.getUser(), req.getUseAes());
+        ContractGasProvider contractGasProvider = new StaticGasProvider(Constants.GAS_PRICE, Constants.GAS_LIMIT);
+        CommonContract commonContract = CommonContract.load(trans.address, trans.web3j,
+                credentials, contractGasProvider);
+        // request
+        return execTransaction(trans.function, commonContract);
+    }
+
+    /**
+     * resolveTrans.
+     * find function in abi, encode params and get contract address from cns if not given
+     * @param req request
+     */
+    private ResolvedTrans resolveTrans(ReqTransHandle req) throws FrontException {
         String contractName = req.getContractName();
         String version = req.getVersion();
-        String address = req.getContractAddress();
         String funcName = req.getFuncName();
         List<Object> params = req.getFuncParam();
         int groupId = req.getGroupId();
 
-        // if function is constant
-        String constant = ContractAbiUtil.ifConstantFunc(contractName, funcName, version);
-        if (constant == null) {
-            log.warn("dealWithtrans fail. contract name:{} func:{} version:{} is not existed",
+        FunctionDescriptor descriptor = ContractAbiUtil.getFunction(contractName, version, funcName);
+        if (descriptor == null) {
+            log.warn("resolveTrans fail. contract name:{} func:{} version:{} is not existed",
                     contractName, funcName, version);
             throw new FrontException(ConstantCode.IN_FUNCTION_ERROR);
         }
-
         // inputs format
-        List<String> funcInputTypes =
-                ContractAbiUtil.getFuncInputType(contractName, funcName, version);
-        if (funcInputTypes == null || funcInputTypes.size() != params.size()) {
-            log.warn("dealWithtrans fail. funcInputTypes:{}, params:{}", funcInputTypes, params);
+        List<String> funcInputTypes = descriptor.getInputTypes();
+        if (funcInputTypes.size() != params.size()) {
+            log.warn("resolveTrans fail. funcInputTypes:{}, params:{}", funcInputTypes, params);
             throw new FrontException(ConstantCode.IN_FUNCPARAM_ERROR);
         }
-        List<Type> finalInputs = AbiUtil.inputFormat(funcInputTypes, params);
-
-        // outputs format
-        List<String> funOutputTypes =
-                ContractAbiUtil.getFuncOutputType(contractName, funcName, version);
-        List<TypeReference<?>> finalOutputs = AbiUtil.outputFormat(funOutputTypes);
-
-        // get privateKey
-        Credentials credentials = null;
-        if ("true".equals(constant)) {
-            KeyStoreInfo keyStoreInfo = keyStoreService.createKeyStore(false, KeyTypes.LOCALRANDOM.getValue(), "");
-            credentials = Credentials.create(keyStoreInfo.getPrivateKey());
-        } else {
-            credentials = keyStoreService.getCredentials(req.getUser(), req.getUseAes());
-        }
+        Function function = descriptor.getCodec().buildFunction(params);
 
-        // contract load
-        CommonContract commonContract;
         Web3j web3j = web3jMap.get(groupId);
         if (web3j == null) {
-            new FrontException(GROUPID_NOT_EXIST);
+            throw new FrontException(GROUPID_NOT_EXIST);
         }
+        // contract address
+        String address = req.getContractAddress();
+        String cnsName = contractName + Constants.SYMPOL + version;
         if (address == null) {
-            address = cnsMap.get(contractName + ":" + version);
+            address = cnsMap.get(cnsName);
         }
-
-        ContractGasProvider contractGasProvider = new StaticGasProvider(Constants.GAS_PRICE, Constants.GAS_LIMIT);
-        if (address != null) {
-            commonContract = CommonContract.load(address, web3j, credentials, contractGasProvider);
-        } else {
-            commonContract = CommonContract.loadByName(contractName + Constants.SYMPOL + version,
-                    web3j, credentials, contractGasProvider);
-        }
-        // request
-        Function function = new Function(funcName, finalInputs, finalOutputs);
-        if ("true".equals(constant)) {
-            result = execCall(funOutputTypes, function, commonContract);
-        } else {
-            result = execTransaction(function, commonContract);
+        if (address == null) {
+            address = cnsServiceMap.get(groupId).getAddressByContractNameAndVersion(cnsName);
         }
-        return result;
+        return new ResolvedTrans(descriptor, function, web3j, address);
     }
 
     /**
@@ -364,6 +459,44 @@ public class TransService {
         }
     }
 
+    /**
+     * execCall by eth_call with query identity, without loading contract
+     *
+     * @param codec codec of function
+     * @param web3j web3j of group
+     * @param contractAddress address
+     * @param function function
+     */
+    public Object execCall(FunctionCodec codec, Web3j web3j, String contractAddress,
+            Function function) throws FrontException {
+        try {
+            List<Type> typeList = callFunction(web3j, contractAddress, function);
+            Object result = null;
+            if (typeList.size() > 0) {
+                result = codec.decodeOutputs(typeList);
+            }
+            return result;
+        } catch (IOException e) {
+            log.error("execCall failed.", e);
+            throw new FrontException(ConstantCode.TRANSACTION_QUERY_FAILED.getCode(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * callFunction.
+     * read-only call, from address is the fixed query identity
+     */
+    private List<Type> callFunction(Web3j web3j, String contractAddress, Function function)
+            throws IOException {
+        String callOutput = web3j
+                .call(Transaction.createEthCallTransaction(
+                        keyStoreService.getQueryCredentials().getAddress(), contractAddress,
+                        FunctionEncoder.encode(function)), DefaultBlockParameterName.LATEST)
+                .send().getValue().getOutput();
+        return FunctionReturnDecoder.decode(callOutput, function.getOutputParameters());
+    }
+
     /**
      * execTransaction  through common contract
      *
@@ -396,51 +529,86 @@ public class TransService {
         Random r = new Random();
         BigInteger randomid = new BigInteger(250, r);
         BigInteger blockLimit = web3j.getBlockNumberCache();
-        String versionContent = web3j.getNodeVersion().sendForReturnString();
-        String signMsg = "";
-        if (versionContent.contains("2.0.0-rc1") || versionContent.contains("release-2.0.1")) {
-            RawTransaction rawTransaction = RawTransaction.createTransaction(randomid,
-                    constants.GAS_PRICE, constants.GAS_LIMIT, blockLimit, contractAddress,
-                    BigInteger.ZERO, data);
-            byte[] encodedTransaction = TransactionEncoder.encode(rawTransaction);
-            String encodedDataStr = Numeric.toHexString(encodedTransaction);
-
-            EncodeInfo encodeInfo = new EncodeInfo();
-            encodeInfo.setUserId(userId);
-            encodeInfo.setEncodedDataStr(encodedDataStr);
-            String signDataStr = keyStoreService.getSignDate(encodeInfo);
-            if (StringUtils.isBlank(signDataStr)) {
-                log.warn("deploySend get sign data error.");
-                return null;
-            }
+        UnsignedTransaction transaction = nodeMetadataCache.get(groupId, web3j)
+                .getTransactionBuilder().create(randomid, blockLimit, contractAddress, data);
+        String encodedDataStr = Numeric.toHexString(transaction.encode());
 
-            SignatureData signData = CommonUtils.stringToSignatureData(signDataStr);
-            byte[] signedMessage = TransactionEncoder.encode(rawTransaction, signData);
-            signMsg = Numeric.toHexString(signedMessage);
-        } else {
-            String chainId = (String) JSONObject.parseObject(versionContent).get("Chain Id");
-            ExtendedRawTransaction extendedRawTransaction =
-                    ExtendedRawTransaction.createTransaction(randomid, constants.GAS_PRICE,
-                            constants.GAS_LIMIT, blockLimit, contractAddress, BigInteger.ZERO, data,
-                            new BigInteger(chainId), BigInteger.valueOf(groupId), "");
-            byte[] encodedTransaction = ExtendedTransactionEncoder.encode(extendedRawTransaction);
-            String encodedDataStr = Numeric.toHexString(encodedTransaction);
-
-            EncodeInfo encodeInfo = new EncodeInfo();
-            encodeInfo.setUserId(userId);
-            encodeInfo.setEncodedDataStr(encodedDataStr);
-            String signDataStr = keyStoreService.getSignDate(encodeInfo);
-            if (StringUtils.isBlank(signDataStr)) {
-                log.warn("deploySend get sign data error.");
-                return null;
-            }
+        EncodeInfo encodeInfo = new EncodeInfo();
+        encodeInfo.setUserId(userId);
+        encodeInfo.setEncodedDataStr(encodedDataStr);
+        String signDataStr = keyStoreService.getSignDate(encodeInfo);
+        if (StringUtils.isBlank(signDataStr)) {
+            log.warn("deploySend get sign data error.");
+            return null;
+        }
+
+        SignatureData signData = CommonUtils.stringToSignatureData(signDataStr);
+        return Numeric.toHexString(transaction.encode(signData));
+    }
+
+    /**
+     * getTransReceipt.
+     * state of async transaction, wait at most waitSeconds if it's still pending
+     *
+     * @param transHash hash
+     * @param waitSeconds long-poll time, no more than transMaxWait
+     */
+    public DeferredResult<RspTransReceipt> getTransReceipt(String transHash, int waitSeconds) {
+        CompletableFuture<TransactionReceipt> future = transReceiptRegistry.getFuture(transHash);
+        if (future == null) {
+            throw new FrontException(ConstantCode.TRANS_HASH_NOT_EXIST);
+        }
+        RspTransReceipt current = TransReceiptRegistry.toRspTransReceipt(transHash, future);
+        int wait = Math.min(Math.max(waitSeconds, 0), constants.getTransMaxWait());
+        if (wait == 0 || future.isDone()) {
+            DeferredResult<RspTransReceipt> result = new DeferredResult<>();
+            result.setResult(current);
+            return result;
+        }
+        DeferredResult<RspTransReceipt> result =
+                new DeferredResult<>(TimeUnit.SECONDS.toMillis(wait), current);
+        future.whenComplete((receipt, ex) -> result
+                .setResult(TransReceiptRegistry.toRspTransReceipt(transHash, future)));
+        return result;
+    }
+
+    /**
+     * signMessage by local credentials.
+     *
+     * @param groupId id
+     * @param credentials credentials of user
+     * @param contractAddress info
+     * @param data info
+     */
+    public String signMessage(int groupId, Web3j web3j, Credentials credentials,
+            String contractAddress, String data) throws IOException {
+        Random r = new Random();
+        BigInteger randomid = new BigInteger(250, r);
+        BigInteger blockLimit = web3j.getBlockNumberCache();
+        UnsignedTransaction transaction = nodeMetadataCache.get(groupId, web3j)
+                .getTransactionBuilder().create(randomid, blockLimit, contractAddress, data);
+        return Numeric.toHexString(transaction.sign(credentials));
+    }
 
-            SignatureData signData = CommonUtils.stringToSignatureData(signDataStr);
-            byte[] signedMessage =
-                    ExtendedTransactionEncoder.encode(extendedRawTransaction, signData);
-            signMsg = Numeric.toHexString(signedMessage);
+    /**
+     * send message to node without waiting for receipt.
+     * receipt is kept in transReceiptRegistry
+     *
+     * @param callbackUrl notified when receipt returned, nullable
+     * @return transHash
+     */
+    public String sendMessageAsync(Web3j web3j, String signMsg, String callbackUrl)
+            throws IOException {
+        String transHash = Hash.sha3(signMsg);
+        final CompletableFuture<TransactionReceipt> transFuture = new CompletableFuture<>();
+        transReceiptRegistry.register(transHash, transFuture, callbackUrl);
+        try {
+            sendMessage(web3j, signMsg, transFuture);
+        } catch (IOException | RuntimeException e) {
+            transFuture.completeExceptionally(e);
+            throw e;
         }
-        return signMsg;
+        return transHash;
     }
 
     /**
@@ -463,4 +631,22 @@ public class TransService {
         });
         request.send();
     }
+
+    /**
+     * function and contract of a transaction request after resolved.
+     */
+    private static class ResolvedTrans {
+        private final FunctionDescriptor descriptor;
+        private final Function function;
+        private final Web3j web3j;
+        private final String address;
+
+        private ResolvedTrans(FunctionDescriptor descriptor, Function function, Web3j web3j,
+                String address) {
+            this.descriptor = descriptor;
+            this.function = function;
+            this.web3j = web3j;
+            this.address = address;
+        }
+    }
 }
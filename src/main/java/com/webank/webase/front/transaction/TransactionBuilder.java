@@ -0,0 +1,106 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.transaction;
+
+import com.alibaba.fastjson.JSONObject;
+import com.webank.webase.front.base.properties.Constants;
+import java.math.BigInteger;
+import org.fisco.bcos.web3j.crypto.Credentials;
+import org.fisco.bcos.web3j.crypto.ExtendedRawTransaction;
+import org.fisco.bcos.web3j.crypto.ExtendedTransactionEncoder;
+import org.fisco.bcos.web3j.crypto.RawTransaction;
+import org.fisco.bcos.web3j.crypto.Sign.SignatureData;
+import org.fisco.bcos.web3j.crypto.TransactionEncoder;
+
+/**
+ * TransactionBuilder.
+ * build raw transactions in the format of the node,
+ * chosen once by node version instead of per transaction.
+ */
+public interface TransactionBuilder {
+
+    /**
+     * create an unsigned transaction.
+     */
+    UnsignedTransaction create(BigInteger randomId, BigInteger blockLimit, String to,
+            String data);
+
+    /**
+     * transaction to be signed locally or by WeBASE-Sign.
+     */
+    interface UnsignedTransaction {
+
+        byte[] encode();
+
+        byte[] encode(SignatureData signData);
+
+        byte[] sign(Credentials credentials);
+    }
+
+    /**
+     * choose builder by the content of getNodeVersion.
+     * 2.0.0-rc1 and release-2.0.1 nodes use RawTransaction without chain id and group id
+     */
+    static TransactionBuilder of(String versionContent, int groupId) {
+        if (versionContent.contains("2.0.0-rc1") || versionContent.contains("release-2.0.1")) {
+            return (randomId, blockLimit, to, data) -> {
+                RawTransaction rawTransaction = RawTransaction.createTransaction(randomId,
+                        Constants.GAS_PRICE, Constants.GAS_LIMIT, blockLimit,
+                        to, BigInteger.ZERO, data);
+                return new UnsignedTransaction() {
+                    @Override
+                    public byte[] encode() {
+                        return TransactionEncoder.encode(rawTransaction);
+                    }
+
+                    @Override
+                    public byte[] encode(SignatureData signData) {
+                        return TransactionEncoder.encode(rawTransaction, signData);
+                    }
+
+                    @Override
+                    public byte[] sign(Credentials credentials) {
+                        return TransactionEncoder.signMessage(rawTransaction, credentials);
+                    }
+                };
+            };
+        }
+        BigInteger chainId = new BigInteger(
+                (String) JSONObject.parseObject(versionContent).get("Chain Id"));
+        BigInteger group = BigInteger.valueOf(groupId);
+        return (randomId, blockLimit, to, data) -> {
+            ExtendedRawTransaction extendedRawTransaction =
+                    ExtendedRawTransaction.createTransaction(randomId,
+                            Constants.GAS_PRICE, Constants.GAS_LIMIT,
+                            blockLimit, to, BigInteger.ZERO, data, chainId, group, "");
+            return new UnsignedTransaction() {
+                @Override
+                public byte[] encode() {
+                    return ExtendedTransactionEncoder.encode(extendedRawTransaction);
+                }
+
+                @Override
+                public byte[] encode(SignatureData signData) {
+                    return ExtendedTransactionEncoder.encode(extendedRawTransaction, signData);
+                }
+
+                @Override
+                public byte[] sign(Credentials credentials) {
+                    return ExtendedTransactionEncoder.signMessage(extendedRawTransaction,
+                            credentials);
+                }
+            };
+        };
+    }
+}
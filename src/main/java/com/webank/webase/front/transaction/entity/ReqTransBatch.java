@@ -0,0 +1,34 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.transaction.entity;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Valid;
+import lombok.Data;
+import org.hibernate.validator.constraints.NotEmpty;
+
+/**
+ * transBatch interface parameter.
+ * each item is handled as a transHandle request
+ */
+@Data
+public class ReqTransBatch {
+    @Valid
+    @NotEmpty(message = ConstantCode.PARAM_FAIL_TRANS_LIST_IS_EMPTY)
+    private List<ReqTransHandle> transList = new ArrayList<>();
+}
@@ -36,4 +36,9 @@ public class ReqTransHandleWithSign {
     @NotBlank(message = ConstantCode.PARAM_FAIL_FUNCNAME_IS_EMPTY)
     private String funcName;
     private List<Object> funcParam = new ArrayList<>();
+    /**
+     * return transHash without waiting for receipt.
+     */
+    private boolean async = false;
+    private String callbackUrl;
 }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.transaction.entity;
+
+import com.webank.webase.front.base.code.RetCode;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * result of one item in transBatch.
+ * data is the call result or the transaction receipt
+ */
+@Data
+@NoArgsConstructor
+public class RspTransBatch {
+    private int index;
+    private int code;
+    private String message;
+    private Object data;
+
+    public RspTransBatch(int index, RetCode retCode, Object data) {
+        this.index = index;
+        this.code = retCode.getCode();
+        this.message = retCode.getMessage();
+        this.data = data;
+    }
+}
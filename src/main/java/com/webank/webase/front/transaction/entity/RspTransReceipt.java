@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.transaction.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+
+/**
+ * state of an async transaction.
+ * status: pending, success or fail
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RspTransReceipt {
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_SUCCESS = "success";
+    public static final String STATUS_FAIL = "fail";
+
+    private String transHash;
+    private String status;
+    private TransactionReceipt receipt;
+}
@@ -16,21 +16,19 @@ package com.webank.webase.front.util;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.fisco.bcos.web3j.abi.EventValues;
 import org.fisco.bcos.web3j.abi.TypeReference;
 import org.fisco.bcos.web3j.abi.datatypes.DynamicArray;
-import org.fisco.bcos.web3j.abi.datatypes.Event;
 import org.fisco.bcos.web3j.abi.datatypes.Type;
 import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition;
 import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition.NamedType;
 import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
 import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
-import org.fisco.bcos.web3j.tx.Contract;
-import org.fisco.bcos.web3j.tx.txdecode.ConstantProperties;
 import com.alibaba.fastjson.JSON;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.alibaba.fastjson.JSONArray;
 import com.webank.webase.front.base.exception.FrontException;
 
@@ -40,6 +38,68 @@ import com.webank.webase.front.base.exception.FrontException;
  */
 public class AbiUtil {
 
+    private static final int DEFAULT_ABI_CACHE_SIZE = 1000;
+
+    /**
+     * parsed abi by fingerprint, fingerprint is the abi string
+     * or the abi list itself whose equals/hashCode is structural.
+     * sized by constant.abiCacheSize at startup
+     */
+    private static volatile Cache<Object, ParsedAbi> abiCache =
+            newAbiCache(DEFAULT_ABI_CACHE_SIZE);
+
+    private static Cache<Object, ParsedAbi> newAbiCache(int size) {
+        return CacheBuilder.newBuilder().maximumSize(size).recordStats().build();
+    }
+
+    /**
+     * replace the parsed abi cache with an empty one of size.
+     */
+    public static void initAbiCache(int size) {
+        abiCache = newAbiCache(size);
+    }
+
+    /**
+     * get parsed abi from cache, parse it if absent.
+     *
+     * @param contractAbi abi json string
+     */
+    public static ParsedAbi getParsedAbi(String contractAbi) {
+        ParsedAbi parsedAbi = abiCache.getIfPresent(contractAbi);
+        if (parsedAbi == null) {
+            parsedAbi = parseAbi(contractAbi);
+            abiCache.put(contractAbi, parsedAbi);
+        }
+        return parsedAbi;
+    }
+
+    /**
+     * get parsed abi from cache, parse it if absent.
+     *
+     * @param contractAbi abi list of request, a copy is kept as key
+     */
+    public static ParsedAbi getParsedAbi(List<Object> contractAbi) {
+        ParsedAbi parsedAbi = abiCache.getIfPresent(contractAbi);
+        if (parsedAbi == null) {
+            parsedAbi = parseAbi(JSON.toJSONString(contractAbi));
+            abiCache.put(new ArrayList<>(contractAbi), parsedAbi);
+        }
+        return parsedAbi;
+    }
+
+    public static Cache<Object, ParsedAbi> getAbiCache() {
+        return abiCache;
+    }
+
+    private static ParsedAbi parseAbi(String contractAbi) {
+        JSONArray abiArr = JSONArray.parseArray(contractAbi);
+        List<AbiDefinition> abiList = new ArrayList<>(abiArr.size());
+        for (Object object : abiArr) {
+            abiList.add(JSON.parseObject(object.toString(), AbiDefinition.class));
+        }
+        return new ParsedAbi(abiList);
+    }
+
     /**
      * get constructor abi info.
      * 
@@ -47,16 +107,7 @@ public class AbiUtil {
      * @return
      */
     public static AbiDefinition getAbiDefinition(String contractAbi) {
-        JSONArray abiArr = JSONArray.parseArray(contractAbi);
-        AbiDefinition result = null;
-        for (Object object : abiArr) {
-            AbiDefinition abiDefinition = JSON.parseObject(object.toString(), AbiDefinition.class);
-            if (ConstantProperties.TYPE_CONSTRUCTOR.equals(abiDefinition.getType())) {
-                result = abiDefinition;
-                break;
-            }
-        }
-        return result;
+        return getParsedAbi(contractAbi).getConstructor();
     }
 
     /**
@@ -67,19 +118,9 @@ public class AbiUtil {
      * @return
      */
     public static AbiDefinition getAbiDefinition(String name, String contractAbi) {
-        JSONArray abiArr = JSONArray.parseArray(contractAbi);
-        AbiDefinition result = null;
-        for (Object object : abiArr) {
-            AbiDefinition abiDefinition = JSON.parseObject(object.toString(), AbiDefinition.class);
-            if (ConstantProperties.TYPE_FUNCTION.equals(abiDefinition.getType())
-                    && name.equals(abiDefinition.getName())) {
-                result = abiDefinition;
-                break;
-            } 
-        }
-        return result;
+        return getParsedAbi(contractAbi).getFunction(name);
     }
-    
+
     /**
      * get event abi info.
      * 
@@ -87,15 +128,7 @@ public class AbiUtil {
      * @return
      */
     public static List<AbiDefinition> getEventAbiDefinitions(String contractAbi) {
-        JSONArray abiArr = JSONArray.parseArray(contractAbi);
-        List<AbiDefinition> result = new ArrayList<>();
-        for (Object object : abiArr) {
-            AbiDefinition abiDefinition = JSON.parseObject(object.toString(), AbiDefinition.class);
-            if (ConstantProperties.TYPE_EVENT.equals(abiDefinition.getType())) {
-                result.add(abiDefinition);
-            } 
-        }
-        return result;
+        return getParsedAbi(contractAbi).getEvents();
     }
 
     /**
@@ -228,6 +261,20 @@ public class AbiUtil {
         throw new FrontException("output parameter not match");
     }
     
+    /**
+     * get parsed abi of abi definitions from cache, parse it if absent.
+     *
+     * @param abiList abi definitions
+     */
+    public static ParsedAbi getParsedAbiOfDefinitions(List<AbiDefinition> abiList) {
+        ParsedAbi parsedAbi = abiCache.getIfPresent(abiList);
+        if (parsedAbi == null) {
+            parsedAbi = new ParsedAbi(abiList);
+            abiCache.put(new ArrayList<>(abiList), parsedAbi);
+        }
+        return parsedAbi;
+    }
+
     /**
      * receiptParse.
      * 
@@ -237,23 +284,37 @@ public class AbiUtil {
      */
     public static Object receiptParse(TransactionReceipt receipt, List<AbiDefinition> abiList) 
             throws FrontException {
-        Map<String, Object> resultMap = new HashMap<>();
+        return receiptParse(receipt, getParsedAbiOfDefinitions(abiList));
+    }
+
+    /**
+     * receiptParse.
+     * each log is decoded by the decoder of its topic0,
+     * all occurrences of an event are kept in log order.
+     * 
+     * @param receipt info
+     * @param parsedAbi info
+     * @return event name to values of each occurrence, values are in param order
+     */
+    public static Map<String, List<List<Object>>> receiptParse(TransactionReceipt receipt,
+            ParsedAbi parsedAbi) throws FrontException {
+        Map<String, List<List<Object>>> resultMap = new LinkedHashMap<>();
         List<Log> logList = receipt.getLogs();
-        for (AbiDefinition abiDefinition : abiList) {
-            String eventName = abiDefinition.getName();
-            List<String> funcInputTypes = getFuncInputType(abiDefinition);
-            List<TypeReference<?>> finalOutputs = outputFormat(funcInputTypes);
-            Event event = new Event(eventName,finalOutputs);
-            Object result = null;
-            for (Log logInfo : logList) {
-                EventValues eventValues = Contract.staticExtractEventParameters(event, logInfo);
-                if (eventValues != null) {
-                    result = callResultParse(funcInputTypes, eventValues.getNonIndexedValues());
-                    break;
-                }
+        if (logList == null) {
+            return resultMap;
+        }
+        for (Log logInfo : logList) {
+            List<String> topics = logInfo.getTopics();
+            if (topics == null || topics.isEmpty()) {
+                continue;
+            }
+            EventDecoder decoder = parsedAbi.getEventDecoder(topics.get(0));
+            if (decoder == null) {
+                continue;
             }
-            if (result != null) {
-                resultMap.put(eventName, result);
+            List<Object> values = decoder.decode(logInfo);
+            if (values != null) {
+                resultMap.computeIfAbsent(decoder.getName(), k -> new ArrayList<>()).add(values);
             }
         }
         return resultMap;
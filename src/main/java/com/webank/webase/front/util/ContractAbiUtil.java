@@ -18,21 +18,20 @@ package com.webank.webase.front.util;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.fisco.bcos.web3j.abi.datatypes.DynamicArray;
 import org.fisco.bcos.web3j.abi.datatypes.StaticArray;
-import org.fisco.bcos.web3j.abi.datatypes.Type;
 import org.fisco.bcos.web3j.abi.datatypes.generated.AbiTypes;
 import org.fisco.bcos.web3j.protocol.ObjectMapperFactory;
 import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition;
-import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition.NamedType;
 import com.alibaba.fastjson.JSON;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.squareup.javapoet.ClassName;
@@ -41,7 +40,7 @@ import com.squareup.javapoet.TypeName;
 import com.webank.webase.front.base.code.ConstantCode;
 import com.webank.webase.front.base.properties.Constants;
 import com.webank.webase.front.base.exception.FrontException;
-import lombok.Data;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -54,36 +53,33 @@ public class ContractAbiUtil {
         throw new IllegalStateException("Utility class");
     }
 
-    public static HashMap<String, List<VersionEvent>> contractEventMap = new HashMap<>();
+    private static final ConcurrentMap<String, ConcurrentMap<String, VersionEvent>> contractEventMap =
+        new ConcurrentHashMap<>();
     private static final String regex = "(\\w+)(?:\\[(.*?)\\])(?:\\[(.*?)\\])?";
     private static final Pattern pattern = Pattern.compile(regex);
 
-    @Data
+    /**
+     * functions of one contract version, immutable once built.
+     */
+    @Getter
     public static class VersionEvent {
 
-        String version;
-        HashMap<String, List<Class<? extends Type>>> events;
-        HashMap<String, Boolean> functions;// constant or not
-        HashMap<String, List<String>> funcInputs;
-        HashMap<String, List<String>> funcOutputs;
+        private final String version;
+        private final Map<String, FunctionDescriptor> functions;
 
         /**
          * VersionEvent.
          *
          * @param version contract version
-         * @param events events
-         * @param functions functions
-         * @param funcInputs funcInputs
-         * @param funcOutputs funcOutputs
+         * @param functions functions by name, constructor by contract name
          */
-        public VersionEvent(String version, HashMap<String, List<Class<? extends Type>>> events,
-            HashMap<String, Boolean> functions, HashMap<String, List<String>> funcInputs,
-            HashMap<String, List<String>> funcOutputs) {
+        public VersionEvent(String version, Map<String, FunctionDescriptor> functions) {
             this.version = version;
-            this.events = events;
-            this.functions = functions;
-            this.funcInputs = funcInputs;
-            this.funcOutputs = funcOutputs;
+            this.functions = Collections.unmodifiableMap(new HashMap<>(functions));
+        }
+
+        public FunctionDescriptor getFunction(String funcName) {
+            return funcName == null ? null : functions.get(funcName);
         }
     }
 
@@ -137,113 +133,52 @@ public class ContractAbiUtil {
     public static void setContractWithAbi(String contractName, String version,
         List<AbiDefinition> abiDefinitionList, boolean ifSaveFile) throws FrontException {
 
-        List<VersionEvent> versionEventList = getAbiVersionList(contractName, version);
-        setFunctionFromAbi(contractName, version, abiDefinitionList, versionEventList);
+        VersionEvent versionEvent = buildVersionEvent(contractName, version, abiDefinitionList);
+        if (getVersionMap(contractName).putIfAbsent(version, versionEvent) != null) {
+            log.error("contract:{} version:{} is existed.", contractName, version);
+            throw new FrontException(ConstantCode.CONTRACT_DEPLOYED_ERROR);
+        }
 
         if (ifSaveFile) {
             saveAbiFile(contractName, version, abiDefinitionList);
         }
     }
 
+    /**
+     * set contract in map, replace the existed version.
+     *
+     * @param contractName contractName
+     * @param version version
+     * @param abiDefinitionList abi info
+     */
     public static void setFunctionFromAbi(String contractName, String version,
-        List<AbiDefinition> abiDefinitionList, List<VersionEvent> versionEventList) {
-        HashMap<String, List<Class<? extends Type>>> events = new HashMap<>();
-        HashMap<String, Boolean> functions = new HashMap<>();
-        HashMap<String, List<String>> funcInputs = new HashMap<>();
-        HashMap<String, List<String>> funcOutputs = new HashMap<>();
-
-        // todo fill with solidity type  only need the type
-        for (AbiDefinition abiDefinition : abiDefinitionList) {
-
-            if (Constants.TYPE_CONSTRUCTOR.equals(abiDefinition.getType())) {
-                List<NamedType> inputs = abiDefinition.getInputs();
-                List<String> inputList = new ArrayList<>();
-
-                for (NamedType input : inputs) {
-                    inputList.add(input.getType());
-                }
-                functions.put(contractName, false);
-                funcInputs.put(contractName, inputList);
-            } else if (Constants.TYPE_FUNCTION.equals(abiDefinition.getType())) {
-                List<NamedType> inputs = abiDefinition.getInputs();
-                List<String> inputList = new ArrayList<>();
-                List<NamedType> outputs = abiDefinition.getOutputs();
-                List<String> outputList = new ArrayList<>();
-
-                for (NamedType input : inputs) {
-                    inputList.add(input.getType());
-                }
-                for (NamedType output : outputs) {
-                    outputList.add(output.getType());
-                }
-
-                functions.put(abiDefinition.getName(), abiDefinition.isConstant());
-                funcInputs.put(abiDefinition.getName(), inputList);
-                funcOutputs.put(abiDefinition.getName(), outputList);
-            }
-        }
-
-        versionEventList.add(new VersionEvent(version, events, functions, funcInputs, funcOutputs));
-        contractEventMap.put(contractName, versionEventList);
+        List<AbiDefinition> abiDefinitionList) {
+        getVersionMap(contractName)
+            .put(version, buildVersionEvent(contractName, version, abiDefinitionList));
     }
 
-
     public static VersionEvent getVersionEventFromAbi(String contractName, List<AbiDefinition> abiDefinitionList) {
-        HashMap<String, List<Class<? extends Type>>> events = new HashMap<>();
-        HashMap<String, Boolean> functions = new HashMap<>();
-        HashMap<String, List<String>> funcInputs = new HashMap<>();
-        HashMap<String, List<String>> funcOutputs = new HashMap<>();
+        return buildVersionEvent(contractName, null, abiDefinitionList);
+    }
 
-        // todo fill with solidity type  only need the type
+    private static VersionEvent buildVersionEvent(String contractName, String version,
+        List<AbiDefinition> abiDefinitionList) {
+        Map<String, FunctionDescriptor> functions = new HashMap<>();
         for (AbiDefinition abiDefinition : abiDefinitionList) {
-
             if (Constants.TYPE_CONSTRUCTOR.equals(abiDefinition.getType())) {
-                List<NamedType> inputs = abiDefinition.getInputs();
-                List<String> inputList = new ArrayList<>();
-
-                for (NamedType input : inputs) {
-                    inputList.add(input.getType());
-                }
-                functions.put(contractName, false);
-                funcInputs.put(contractName, inputList);
+                functions.put(contractName,
+                    new FunctionDescriptor(contractName, false, abiDefinition.getInputs(), null));
             } else if (Constants.TYPE_FUNCTION.equals(abiDefinition.getType())) {
-                List<NamedType> inputs = abiDefinition.getInputs();
-                List<String> inputList = new ArrayList<>();
-                List<NamedType> outputs = abiDefinition.getOutputs();
-                List<String> outputList = new ArrayList<>();
-
-                for (NamedType input : inputs) {
-                    inputList.add(input.getType());
-                }
-                for (NamedType output : outputs) {
-                    outputList.add(output.getType());
-                }
-
-                functions.put(abiDefinition.getName(), abiDefinition.isConstant());
-                funcInputs.put(abiDefinition.getName(), inputList);
-                funcOutputs.put(abiDefinition.getName(), outputList);
+                functions.put(abiDefinition.getName(),
+                    new FunctionDescriptor(abiDefinition.getName(), abiDefinition.isConstant(),
+                        abiDefinition.getInputs(), abiDefinition.getOutputs()));
             }
         }
-
-        return new VersionEvent(null, events, functions, funcInputs, funcOutputs);
-
+        return new VersionEvent(version, functions);
     }
 
-    private static List<VersionEvent> getAbiVersionList(String contractName, String version) throws FrontException {
-        List<VersionEvent> versionEventList = null;
-        if (contractEventMap.containsKey(contractName)) {
-            versionEventList = contractEventMap.get(contractName);
-        } else {
-            versionEventList = new ArrayList<>();
-        }
-
-        for (VersionEvent versionEvent : versionEventList) {
-            if (version.equals(versionEvent.getVersion())) {
-                log.error("contract:{} version:{} is existed.", contractName, version);
-                throw new FrontException(ConstantCode.CONTRACT_DEPLOYED_ERROR);
-            }
-        }
-        return versionEventList;
+    private static ConcurrentMap<String, VersionEvent> getVersionMap(String contractName) {
+        return contractEventMap.computeIfAbsent(contractName, k -> new ConcurrentHashMap<>());
     }
 
     /**
@@ -281,6 +216,33 @@ public class ContractAbiUtil {
         return;
     }
 
+    /**
+     * get functions of contract version.
+     *
+     * @param contractName contractName
+     * @param version version
+     */
+    public static VersionEvent getVersionEvent(String contractName, String version) {
+        if (contractName == null || version == null) {
+            return null;
+        }
+        Map<String, VersionEvent> versionMap = contractEventMap.get(contractName);
+        return versionMap == null ? null : versionMap.get(version);
+    }
+
+    /**
+     * get function descriptor.
+     *
+     * @param contractName contractName
+     * @param version version
+     * @param funcName funcName, contractName for constructor
+     */
+    public static FunctionDescriptor getFunction(String contractName, String version,
+        String funcName) {
+        VersionEvent versionEvent = getVersionEvent(contractName, version);
+        return versionEvent == null ? null : versionEvent.getFunction(funcName);
+    }
+
     /**
      * check if the contract has been deployed.
      *
@@ -288,18 +250,7 @@ public class ContractAbiUtil {
      * @param contractVersion version
      */
     public static Boolean ifContractAbiExisted(String contractName, String contractVersion) {
-        boolean ifExisted = false;
-        Map<String, List<String>> contracts = getAllContract();
-        for (String contract : contracts.keySet()) {
-            if (contract.equals(contractName)) {
-                List<String> versions = contracts.get(contract);
-                if (versions.contains(contractVersion)) {
-                    ifExisted = true;
-                    break;
-                }
-            }
-        }
-        return ifExisted;
+        return getVersionEvent(contractName, contractVersion) != null;
     }
 
     /**
@@ -310,21 +261,8 @@ public class ContractAbiUtil {
      * @param version version
      */
     public static String ifConstantFunc(String contractName, String funcName, String version) {
-        if (!contractEventMap.containsKey(contractName)) {
-            return null;
-        }
-        List<VersionEvent> versionEventList = contractEventMap.get(contractName);
-        VersionEvent target = null;
-        for (VersionEvent versionEvent : versionEventList) {
-            if (versionEvent.getVersion().equals(version)) {
-                target = versionEvent;
-                break;
-            }
-        }
-        if (target == null) {
-            return null;
-        }
-        return target.getFunctions().get(funcName).toString();
+        FunctionDescriptor function = getFunction(contractName, version, funcName);
+        return function == null ? null : String.valueOf(function.isConstant());
     }
 
     /**
@@ -336,21 +274,8 @@ public class ContractAbiUtil {
      */
     public static List<String> getFuncInputType(String contractName, String funcName,
         String version) {
-        if (!contractEventMap.containsKey(contractName)) {
-            return null;
-        }
-        List<VersionEvent> versionEventList = contractEventMap.get(contractName);
-        VersionEvent target = null;
-        for (VersionEvent versionEvent : versionEventList) {
-            if (versionEvent.getVersion().equals(version)) {
-                target = versionEvent;
-                break;
-            }
-        }
-        if (target == null) {
-            return null;
-        }
-        return target.getFuncInputs().get(funcName);
+        FunctionDescriptor function = getFunction(contractName, version, funcName);
+        return function == null ? null : function.getInputTypes();
     }
 
     /**
@@ -362,38 +287,8 @@ public class ContractAbiUtil {
      */
     public static List<String> getFuncOutputType(String contractName, String funcName,
         String version) {
-        if (!contractEventMap.containsKey(contractName)) {
-            return   Collections.emptyList();
-        }
-
-        List<VersionEvent> versionEventList = contractEventMap.get(contractName);
-        VersionEvent target = null;
-        for (VersionEvent versionEvent : versionEventList) {
-            if (versionEvent.getVersion().equals(version)) {
-                target = versionEvent;
-                break;
-            }
-        }
-        if (target == null) {
-            return   Collections.emptyList();
-        }
-        return target.getFuncOutputs().get(funcName);
-    }
-
-    /**
-     * get all contract from contractEventMap.
-     */
-    private static Map<String, List<String>> getAllContract() {
-        Map<String, List<String>> contracts = new HashMap<>();
-        for (Map.Entry<String, List<VersionEvent>> entry : contractEventMap.entrySet()) {
-            List<VersionEvent> versionEventList = entry.getValue();
-            List<String> versions = new ArrayList<>();
-            for (VersionEvent versionEvent : versionEventList) {
-                versions.add(versionEvent.getVersion());
-            }
-            contracts.put(entry.getKey(), versions);
-        }
-        return contracts;
+        FunctionDescriptor function = getFunction(contractName, version, funcName);
+        return function == null ? Collections.emptyList() : function.getOutputTypes();
     }
 
 
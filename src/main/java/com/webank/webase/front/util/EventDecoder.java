@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.util;
+
+import com.webank.webase.front.base.exception.FrontException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.abi.EventEncoder;
+import org.fisco.bcos.web3j.abi.FunctionReturnDecoder;
+import org.fisco.bcos.web3j.abi.TypeReference;
+import org.fisco.bcos.web3j.abi.datatypes.Type;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition.NamedType;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+
+/**
+ * EventDecoder.
+ * signature hash, type references and codec of an event resolved once.
+ * static indexed params are decoded from topics, dynamic indexed params
+ * (string, bytes, arrays) are only stored as hash, so the raw topic is returned
+ */
+public final class EventDecoder {
+
+    private final String name;
+    private final String topic0;
+    private final List<String> paramNames;
+    private final boolean[] indexed;
+    private final boolean[] hashed;
+    private final int indexedSize;
+    @SuppressWarnings("rawtypes")
+    private final List<TypeReference<Type>> nonIndexedReferences;
+    private final List<TypeReference<?>> decodableReferences;
+    private final FunctionCodec codec;
+
+    @SuppressWarnings("rawtypes")
+    private EventDecoder(String name, String topic0, List<String> paramNames, boolean[] indexed,
+        boolean[] hashed, List<TypeReference<Type>> nonIndexedReferences,
+        List<TypeReference<?>> decodableReferences, FunctionCodec codec) {
+        this.name = name;
+        this.topic0 = topic0;
+        this.paramNames = paramNames;
+        this.indexed = indexed;
+        this.hashed = hashed;
+        int count = 0;
+        for (boolean item : indexed) {
+            count += item ? 1 : 0;
+        }
+        this.indexedSize = count;
+        this.nonIndexedReferences = nonIndexedReferences;
+        this.decodableReferences = decodableReferences;
+        this.codec = codec;
+    }
+
+    /**
+     * compile.
+     *
+     * @param abiDefinition event definition
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static EventDecoder compile(AbiDefinition abiDefinition) throws FrontException {
+        List<NamedType> inputs = abiDefinition.getInputs();
+        int size = inputs == null ? 0 : inputs.size();
+        List<String> types = new ArrayList<>(size);
+        List<String> paramNames = new ArrayList<>(size);
+        List<String> decodableTypes = new ArrayList<>(size);
+        boolean[] indexed = new boolean[size];
+        boolean[] hashed = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            NamedType input = inputs.get(i);
+            types.add(input.getType());
+            paramNames.add(input.getName());
+            indexed[i] = input.isIndexed();
+            hashed[i] = input.isIndexed() && isDynamic(input.getType());
+            if (!hashed[i]) {
+                decodableTypes.add(input.getType());
+            }
+        }
+        FunctionCodec codec = FunctionCodec.compile(abiDefinition.getName(),
+            Collections.emptyList(), decodableTypes);
+
+        List<TypeReference<Type>> nonIndexedReferences = new ArrayList<>(size);
+        List<TypeReference<?>> decodableReferences = codec.getOutputReferences();
+        for (int i = 0, j = 0; i < size; i++) {
+            if (hashed[i]) {
+                continue;
+            }
+            if (!indexed[i]) {
+                nonIndexedReferences.add((TypeReference<Type>) decodableReferences.get(j));
+            }
+            j++;
+        }
+        String signature = abiDefinition.getName() + "(" + StringUtils.join(types, ",") + ")";
+        String topic0 = EventEncoder.buildEventSignature(signature).toLowerCase();
+        return new EventDecoder(abiDefinition.getName(), topic0,
+            Collections.unmodifiableList(paramNames), indexed, hashed, nonIndexedReferences,
+            decodableReferences, codec);
+    }
+
+    private static boolean isDynamic(String type) {
+        return "string".equals(type) || "bytes".equals(type) || type.indexOf("[") != -1;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTopic0() {
+        return topic0;
+    }
+
+    public List<String> getParamNames() {
+        return paramNames;
+    }
+
+    /**
+     * decode values of log in param order.
+     *
+     * @return null if log is not of this event
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Object> decode(Log log) throws FrontException {
+        List<String> topics = log.getTopics();
+        if (topics == null || topics.size() != indexedSize + 1
+            || !topic0.equalsIgnoreCase(topics.get(0))) {
+            return null;
+        }
+        List<Type> nonIndexedValues;
+        try {
+            nonIndexedValues = nonIndexedReferences.isEmpty() ? Collections.emptyList()
+                : FunctionReturnDecoder.decode(log.getData(), nonIndexedReferences);
+        } catch (RuntimeException e) {
+            throw new FrontException("event data not match");
+        }
+        if (nonIndexedValues.size() != nonIndexedReferences.size()) {
+            throw new FrontException("event data not match");
+        }
+        List<Type> decodable = new ArrayList<>(decodableReferences.size());
+        for (int i = 0, j = 0, topic = 1, data = 0; i < indexed.length; i++) {
+            if (hashed[i]) {
+                topic++;
+                continue;
+            }
+            if (indexed[i]) {
+                decodable.add(FunctionReturnDecoder.decodeIndexedValue(topics.get(topic++),
+                    (TypeReference<Type>) decodableReferences.get(j)));
+            } else {
+                decodable.add(nonIndexedValues.get(data++));
+            }
+            j++;
+        }
+        List<Object> decoded = (List<Object>) codec.decodeOutputs(decodable);
+        List<Object> values = new ArrayList<>(indexed.length);
+        for (int i = 0, j = 0, topic = 1; i < indexed.length; i++) {
+            if (hashed[i]) {
+                values.add(topics.get(topic++));
+            } else {
+                if (indexed[i]) {
+                    topic++;
+                }
+                values.add(decoded.get(j++));
+            }
+        }
+        return values;
+    }
+}
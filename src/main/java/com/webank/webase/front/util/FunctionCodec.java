@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.util;
+
+import com.alibaba.fastjson.JSON;
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.fisco.bcos.web3j.abi.TypeReference;
+import org.fisco.bcos.web3j.abi.datatypes.Address;
+import org.fisco.bcos.web3j.abi.datatypes.Bool;
+import org.fisco.bcos.web3j.abi.datatypes.Bytes;
+import org.fisco.bcos.web3j.abi.datatypes.DynamicArray;
+import org.fisco.bcos.web3j.abi.datatypes.DynamicBytes;
+import org.fisco.bcos.web3j.abi.datatypes.Function;
+import org.fisco.bcos.web3j.abi.datatypes.NumericType;
+import org.fisco.bcos.web3j.abi.datatypes.Type;
+import org.fisco.bcos.web3j.abi.datatypes.Utf8String;
+
+/**
+ * FunctionCodec.
+ * types of a function resolved once: classes, constructor handles and output references.
+ * encoding and decoding give the same result as AbiUtil.inputFormat/outputFormat/callResultParse.
+ * raw Type is kept where web3sdk's Function and FunctionReturnDecoder require it
+ */
+@Slf4j
+public final class FunctionCodec {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private final String name;
+    private final List<ParamCodec> inputCodecs;
+    private final List<ParamCodec> outputCodecs;
+    private final List<TypeReference<?>> outputReferences;
+
+    private FunctionCodec(String name, List<ParamCodec> inputCodecs,
+        List<ParamCodec> outputCodecs, List<TypeReference<?>> outputReferences) {
+        this.name = name;
+        this.inputCodecs = inputCodecs;
+        this.outputCodecs = outputCodecs;
+        this.outputReferences = outputReferences;
+    }
+
+    /**
+     * compile.
+     *
+     * @param name function name
+     * @param inputTypes solidity input types
+     * @param outputTypes solidity output types
+     */
+    public static FunctionCodec compile(String name, List<String> inputTypes,
+        List<String> outputTypes) throws FrontException {
+        List<ParamCodec> inputCodecs = new ArrayList<>(inputTypes.size());
+        for (String inputType : inputTypes) {
+            inputCodecs.add(ParamCodec.compile(inputType));
+        }
+        List<ParamCodec> outputCodecs = new ArrayList<>(outputTypes.size());
+        List<TypeReference<?>> outputReferences = new ArrayList<>(outputTypes.size());
+        for (String outputType : outputTypes) {
+            ParamCodec codec = ParamCodec.compile(outputType);
+            outputCodecs.add(codec);
+            outputReferences.add(codec.array ? ContractTypeUtil.getArrayType(codec.baseType)
+                : TypeReference.create(codec.typeClass));
+        }
+        return new FunctionCodec(name, Collections.unmodifiableList(inputCodecs),
+            Collections.unmodifiableList(outputCodecs),
+            Collections.unmodifiableList(outputReferences));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getInputSize() {
+        return inputCodecs.size();
+    }
+
+    public List<TypeReference<?>> getOutputReferences() {
+        return outputReferences;
+    }
+
+    /**
+     * encode params to abi types, array params are split by ",".
+     *
+     * @param params params
+     */
+    @SuppressWarnings("rawtypes")
+    public List<Type> encodeInputs(List<Object> params) throws FrontException {
+        List<Type> finalInputs = new ArrayList<>(inputCodecs.size());
+        for (int i = 0; i < inputCodecs.size(); i++) {
+            finalInputs.add(inputCodecs.get(i).encode(params.get(i).toString()));
+        }
+        return finalInputs;
+    }
+
+    /**
+     * build function with encoded inputs and prebuilt outputs.
+     *
+     * @param params params
+     */
+    public Function buildFunction(List<Object> params) throws FrontException {
+        return new Function(name, encodeInputs(params), outputReferences);
+    }
+
+    /**
+     * decode call result.
+     *
+     * @param typeList result of call
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object decodeOutputs(List<Type> typeList) throws FrontException {
+        if (outputCodecs.size() != typeList.size()) {
+            throw new FrontException("output parameter not match");
+        }
+        List<Object> result = new ArrayList<>(outputCodecs.size());
+        for (int i = 0; i < outputCodecs.size(); i++) {
+            ParamCodec codec = outputCodecs.get(i);
+            if (codec.array) {
+                List<Type> results = (List<Type>) typeList.get(i).getValue();
+                List<Object> values = new ArrayList<>(results.size());
+                for (Type item : results) {
+                    values.add(codec.decode(item));
+                }
+                result.add(values);
+            } else {
+                result.add(codec.decode(typeList.get(i)));
+            }
+        }
+        return JSON.parse(JSON.toJSONString(result));
+    }
+
+    private enum Kind {
+        ADDRESS, NUMERIC, BOOL, STRING, BYTES, DYNAMIC_BYTES
+    }
+
+    /**
+     * codec of one parameter, arrays are handled as DynamicArray of the base type.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final class ParamCodec {
+        private final String baseType;
+        private final boolean array;
+        private final Class<? extends Type> typeClass;
+        private final Kind kind;
+        private final MethodHandle constructor;
+        private final int bytesLength;
+
+        private ParamCodec(String baseType, boolean array, Class<? extends Type> typeClass,
+            Kind kind, MethodHandle constructor, int bytesLength) {
+            this.baseType = baseType;
+            this.array = array;
+            this.typeClass = typeClass;
+            this.kind = kind;
+            this.constructor = constructor;
+            this.bytesLength = bytesLength;
+        }
+
+        static ParamCodec compile(String type) throws FrontException {
+            boolean array = type.indexOf("[") != -1 && type.indexOf("]") != -1;
+            String baseType = array ? type.substring(0, type.indexOf("[")) : type;
+            Class<? extends Type> typeClass;
+            try {
+                typeClass = AbiTypes.getType(baseType);
+            } catch (UnsupportedOperationException e) {
+                throw new FrontException(201201,
+                    String.format("type:%s unsupported encoding", type));
+            }
+            try {
+                if (Address.class.isAssignableFrom(typeClass)) {
+                    return new ParamCodec(baseType, array, typeClass, Kind.ADDRESS, null, 0);
+                } else if (NumericType.class.isAssignableFrom(typeClass)) {
+                    MethodHandle constructor = LOOKUP.findConstructor(typeClass,
+                        MethodType.methodType(void.class, BigInteger.class));
+                    return new ParamCodec(baseType, array, typeClass, Kind.NUMERIC, constructor,
+                        0);
+                } else if (Bool.class.isAssignableFrom(typeClass)) {
+                    return new ParamCodec(baseType, array, typeClass, Kind.BOOL, null, 0);
+                } else if (Utf8String.class.isAssignableFrom(typeClass)) {
+                    return new ParamCodec(baseType, array, typeClass, Kind.STRING, null, 0);
+                } else if (Bytes.class.isAssignableFrom(typeClass)) {
+                    MethodHandle constructor = LOOKUP.findConstructor(typeClass,
+                        MethodType.methodType(void.class, byte[].class));
+                    int length = Integer.parseInt(
+                        typeClass.getSimpleName().split(Bytes.class.getSimpleName())[1]);
+                    return new ParamCodec(baseType, array, typeClass, Kind.BYTES, constructor,
+                        length);
+                } else if (DynamicBytes.class.isAssignableFrom(typeClass)) {
+                    return new ParamCodec(baseType, array, typeClass, Kind.DYNAMIC_BYTES, null,
+                        0);
+                }
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                log.error("compile codec failed. type:{}", type, e);
+            }
+            throw new FrontException(201201,
+                String.format("type:%s unsupported encoding", type));
+        }
+
+        Type encode(String param) throws FrontException {
+            if (!array) {
+                return encodeValue(param);
+            }
+            String[] items = param.split(",");
+            List<Type> arrParams = new ArrayList<>(items.length);
+            for (String item : items) {
+                arrParams.add(encodeValue(item));
+            }
+            return new DynamicArray<>(arrParams);
+        }
+
+        private Type encodeValue(String input) throws FrontException {
+            switch (kind) {
+                case NUMERIC:
+                    BigInteger numericValue;
+                    try {
+                        numericValue = new BigInteger(input);
+                    } catch (NumberFormatException e) {
+                        log.error("encodeValue failed type:{} value:{}", baseType, input);
+                        throw new FrontException(ConstantCode.IN_FUNCPARAM_ERROR);
+                    }
+                    try {
+                        return (Type) constructor.invoke(numericValue);
+                    } catch (Throwable e) {
+                        log.error("encodeNumeric failed.");
+                        throw new FrontException(201203, String
+                            .format("unable to create instance of type:%s", typeClass.getName()));
+                    }
+                case BYTES:
+                    try {
+                        byte[] byteValue = input.length() > bytesLength
+                            ? input.substring(0, bytesLength).getBytes() : input.getBytes();
+                        byte[] byteValueLength = new byte[bytesLength];
+                        System.arraycopy(byteValue, 0, byteValueLength, 0, byteValue.length);
+                        return (Type) constructor.invoke(byteValueLength);
+                    } catch (Throwable e) {
+                        log.error("encodeValue failed input:{} type:{}", input,
+                            typeClass.getName());
+                        throw new FrontException(ConstantCode.IN_FUNCPARAM_ERROR);
+                    }
+                case ADDRESS:
+                    try {
+                        return new Address(input);
+                    } catch (RuntimeException e) {
+                        log.error("encodeValue failed input:{} type:{}", input,
+                            typeClass.getName());
+                        throw new FrontException(ConstantCode.IN_FUNCPARAM_ERROR);
+                    }
+                case BOOL:
+                    return new Bool(Boolean.valueOf(input));
+                case STRING:
+                    return new Utf8String(input);
+                default:
+                    return new DynamicBytes(input.getBytes());
+            }
+        }
+
+        Object decode(Type result) throws FrontException {
+            switch (kind) {
+                case ADDRESS:
+                    return result.toString();
+                case NUMERIC:
+                case BOOL:
+                    return result.getValue();
+                case STRING:
+                    return result.getValue().toString();
+                default:
+                    return ContractTypeUtil.decodeBytes((byte[]) result.getValue());
+            }
+        }
+    }
+}
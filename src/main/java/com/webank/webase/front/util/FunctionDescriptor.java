@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.webank.webase.front.base.exception.FrontException;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition.NamedType;
+
+/**
+ * FunctionDescriptor.
+ * immutable types of a contract function, built once when the abi is registered.
+ * the codec is compiled once and shared by all calls
+ */
+@Getter
+public final class FunctionDescriptor {
+
+    private final String name;
+    private final boolean constant;
+    private final List<String> inputTypes;
+    private final List<String> outputTypes;
+    @Getter(AccessLevel.NONE)
+    private volatile FunctionCodec codec;
+
+    /**
+     * FunctionDescriptor.
+     *
+     * @param name function name, or contract name of constructor
+     * @param constant constant or not
+     * @param inputs abi inputs
+     * @param outputs abi outputs
+     */
+    public FunctionDescriptor(String name, boolean constant, List<NamedType> inputs,
+        List<NamedType> outputs) {
+        this.name = name;
+        this.constant = constant;
+        this.inputTypes = toTypeList(inputs);
+        this.outputTypes = toTypeList(outputs);
+    }
+
+    /**
+     * codec compiled on first use, unsupported types fail when the function is called.
+     */
+    public FunctionCodec getCodec() throws FrontException {
+        FunctionCodec current = codec;
+        if (current == null) {
+            current = FunctionCodec.compile(name, inputTypes, outputTypes);
+            codec = current;
+        }
+        return current;
+    }
+
+    private static List<String> toTypeList(List<NamedType> namedTypes) {
+        if (namedTypes == null || namedTypes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> typeList = new ArrayList<>(namedTypes.size());
+        for (NamedType namedType : namedTypes) {
+            typeList.add(namedType.getType());
+        }
+        return Collections.unmodifiableList(typeList);
+    }
+}
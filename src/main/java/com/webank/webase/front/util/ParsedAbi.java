@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.util;
+
+import com.webank.webase.front.base.exception.FrontException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition;
+import org.fisco.bcos.web3j.tx.txdecode.ConstantProperties;
+
+/**
+ * ParsedAbi.
+ * abi definitions indexed once, shared by all requests of the same abi
+ */
+@Slf4j
+@Getter
+public final class ParsedAbi {
+
+    private final List<AbiDefinition> abiList;
+    private final AbiDefinition constructor;
+    private final List<AbiDefinition> events;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, AbiDefinition> functions;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, FunctionDescriptor> descriptors;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, EventDecoder> eventDecoders;
+
+    /**
+     * ParsedAbi.
+     * the first definition wins if a function name is overloaded
+     *
+     * @param abiList parsed abi
+     */
+    public ParsedAbi(List<AbiDefinition> abiList) {
+        AbiDefinition constructorDefinition = null;
+        List<AbiDefinition> eventList = new ArrayList<>();
+        Map<String, AbiDefinition> functionMap = new HashMap<>();
+        Map<String, FunctionDescriptor> descriptorMap = new HashMap<>();
+        Map<String, EventDecoder> eventDecoderMap = new HashMap<>();
+        for (AbiDefinition abiDefinition : abiList) {
+            if (ConstantProperties.TYPE_CONSTRUCTOR.equals(abiDefinition.getType())) {
+                if (constructorDefinition == null) {
+                    constructorDefinition = abiDefinition;
+                }
+            } else if (ConstantProperties.TYPE_FUNCTION.equals(abiDefinition.getType())) {
+                if (!functionMap.containsKey(abiDefinition.getName())) {
+                    functionMap.put(abiDefinition.getName(), abiDefinition);
+                    descriptorMap.put(abiDefinition.getName(),
+                        new FunctionDescriptor(abiDefinition.getName(), abiDefinition.isConstant(),
+                            abiDefinition.getInputs(), abiDefinition.getOutputs()));
+                }
+            } else if (ConstantProperties.TYPE_EVENT.equals(abiDefinition.getType())) {
+                eventList.add(abiDefinition);
+                try {
+                    EventDecoder eventDecoder = EventDecoder.compile(abiDefinition);
+                    eventDecoderMap.put(eventDecoder.getTopic0(), eventDecoder);
+                } catch (FrontException e) {
+                    log.warn("event not decodable. name:{} msg:{}", abiDefinition.getName(),
+                        e.getMessage());
+                }
+            }
+        }
+        this.abiList = Collections.unmodifiableList(new ArrayList<>(abiList));
+        this.constructor = constructorDefinition;
+        this.events = Collections.unmodifiableList(eventList);
+        this.functions = functionMap;
+        this.descriptors = descriptorMap;
+        this.eventDecoders = Collections.unmodifiableMap(eventDecoderMap);
+    }
+
+    public AbiDefinition getFunction(String name) {
+        return name == null ? null : functions.get(name);
+    }
+
+    public FunctionDescriptor getDescriptor(String name) {
+        return name == null ? null : descriptors.get(name);
+    }
+
+    /**
+     * get decoder by topic0, the hash of event signature.
+     */
+    public EventDecoder getEventDecoder(String topic0) {
+        return topic0 == null ? null : eventDecoders.get(topic0.toLowerCase());
+    }
+
+    public Map<String, EventDecoder> getEventDecoders() {
+        return eventDecoders;
+    }
+}
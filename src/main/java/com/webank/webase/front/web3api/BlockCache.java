@@ -0,0 +1,202 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.web3api;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.metrics.MetricsSource;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * BlockCache.
+ * sealed blocks with full transactions by groupId, indexed by number and hash.
+ * blocks never change after sealed, so they are kept without ttl
+ * and evicted by lru when blockCacheSize or blockCacheBytes of a group is exceeded.
+ */
+@Component
+public class BlockCache implements MetricsSource {
+
+    private static final int BLOCK_OVERHEAD_BYTES = 2048;
+    private static final int TRANS_OVERHEAD_BYTES = 1024;
+
+    @Autowired
+    private Constants constants;
+
+    private final Map<Integer, GroupBlocks> groupMap = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * get cached block by number, null if not cached.
+     */
+    public BcosBlock.Block getByNumber(int groupId, BigInteger blockNumber) {
+        GroupBlocks blocks = groupMap.get(groupId);
+        return count(blocks == null ? null : blocks.getByNumber(blockNumber));
+    }
+
+    /**
+     * get cached block by hash, null if not cached.
+     */
+    public BcosBlock.Block getByHash(int groupId, String blockHash) {
+        GroupBlocks blocks = groupMap.get(groupId);
+        return count(blocks == null ? null : blocks.getByHash(blockHash));
+    }
+
+    /**
+     * cache a block returned by node, blocks with full transactions only.
+     */
+    public void put(int groupId, BcosBlock.Block block) {
+        if (block == null || block.getNumberRaw() == null || block.getHash() == null) {
+            return;
+        }
+        groupMap.computeIfAbsent(groupId, k -> new GroupBlocks()).put(block);
+    }
+
+    /**
+     * get transaction of block by index, null if index out of range.
+     */
+    public static Transaction getTransaction(BcosBlock.Block block, BigInteger index) {
+        if (block.getTransactions() == null || index.signum() < 0
+            || index.compareTo(BigInteger.valueOf(block.getTransactions().size())) >= 0) {
+            return null;
+        }
+        Object result = block.getTransactions().get(index.intValue());
+        return result instanceof Transaction ? (Transaction) result : null;
+    }
+
+    /**
+     * remove all blocks of group.
+     */
+    public void invalidate(int groupId) {
+        groupMap.remove(groupId);
+    }
+
+    @Override
+    public String getName() {
+        return "blockCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long size = 0;
+        long bytes = 0;
+        for (GroupBlocks blocks : groupMap.values()) {
+            synchronized (blocks) {
+                size += blocks.byNumber.size();
+                bytes += blocks.bytes;
+            }
+        }
+        long hit = hitCount.get();
+        long miss = missCount.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", size);
+        metrics.put("bytes", bytes);
+        metrics.put("hitCount", hit);
+        metrics.put("missCount", miss);
+        metrics.put("hitRate", hit + miss == 0 ? 1.0 : (double) hit / (hit + miss));
+        metrics.put("evictionCount", evictionCount.get());
+        return metrics;
+    }
+
+    private BcosBlock.Block count(BcosBlock.Block block) {
+        if (block == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return block;
+    }
+
+    /**
+     * estimated heap size of block.
+     */
+    static long estimateBytes(BcosBlock.Block block) {
+        long bytes = BLOCK_OVERHEAD_BYTES;
+        if (block.getExtraData() != null) {
+            bytes += 2L * block.getExtraData().toString().length();
+        }
+        if (block.getTransactions() != null) {
+            for (TransactionResult<?> result : block.getTransactions()) {
+                bytes += TRANS_OVERHEAD_BYTES;
+                if (result instanceof Transaction && ((Transaction) result).getInput() != null) {
+                    bytes += 2L * ((Transaction) result).getInput().length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * lru blocks of one group, guarded by itself.
+     */
+    private class GroupBlocks {
+
+        private final LinkedHashMap<BigInteger, CachedBlock> byNumber =
+            new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<String, BigInteger> byHash = new ConcurrentHashMap<>();
+        private long bytes;
+
+        synchronized BcosBlock.Block getByNumber(BigInteger blockNumber) {
+            CachedBlock cached = byNumber.get(blockNumber);
+            return cached == null ? null : cached.block;
+        }
+
+        BcosBlock.Block getByHash(String blockHash) {
+            BigInteger blockNumber = byHash.get(blockHash.toLowerCase());
+            return blockNumber == null ? null : getByNumber(blockNumber);
+        }
+
+        synchronized void put(BcosBlock.Block block) {
+            CachedBlock cached = new CachedBlock(block, estimateBytes(block));
+            CachedBlock old = byNumber.put(block.getNumber(), cached);
+            if (old != null) {
+                bytes -= old.bytes;
+                byHash.remove(old.block.getHash().toLowerCase());
+            }
+            bytes += cached.bytes;
+            byHash.put(block.getHash().toLowerCase(), block.getNumber());
+            Iterator<CachedBlock> it = byNumber.values().iterator();
+            while (it.hasNext() && byNumber.size() > 1
+                && (byNumber.size() > constants.getBlockCacheSize()
+                || bytes > constants.getBlockCacheBytes())) {
+                CachedBlock eldest = it.next();
+                it.remove();
+                bytes -= eldest.bytes;
+                byHash.remove(eldest.block.getHash().toLowerCase());
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static class CachedBlock {
+
+        private final BcosBlock.Block block;
+        private final long bytes;
+
+        private CachedBlock(BcosBlock.Block block, long bytes) {
+            this.block = block;
+            this.bytes = bytes;
+        }
+    }
+}
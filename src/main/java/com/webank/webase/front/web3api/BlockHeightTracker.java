@@ -0,0 +1,126 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.web3api;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * BlockHeightTracker.
+ * latest block number of each group, polled once a second for all callers
+ * and raised by any block number seen in responses.
+ */
+@Slf4j
+@Component
+public class BlockHeightTracker {
+
+    @Autowired
+    private Map<Integer, Web3j> web3jMap;
+
+    private final Map<Integer, AtomicReference<BigInteger>> heightMap = new ConcurrentHashMap<>();
+    // groups whose poll request has not returned yet
+    private final Set<Integer> pollingGroups = ConcurrentHashMap.newKeySet();
+
+    /**
+     * latest known block number, request node if group is not tracked yet.
+     */
+    public BigInteger getHeight(int groupId) {
+        AtomicReference<BigInteger> height = heightMap.get(groupId);
+        if (height == null) {
+            return refresh(groupId);
+        }
+        return height.get();
+    }
+
+    /**
+     * whether blockNumber is greater than latest block number.
+     * request node once before answering yes, in case the tracked height is behind
+     */
+    public boolean isAhead(int groupId, BigInteger blockNumber) {
+        if (blockNumber.compareTo(getHeight(groupId)) <= 0) {
+            return false;
+        }
+        return blockNumber.compareTo(refresh(groupId)) > 0;
+    }
+
+    /**
+     * raise tracked height of group, lower number is ignored.
+     */
+    public void observe(int groupId, BigInteger blockNumber) {
+        if (blockNumber == null) {
+            return;
+        }
+        AtomicReference<BigInteger> height =
+            heightMap.computeIfAbsent(groupId, k -> new AtomicReference<>(blockNumber));
+        height.accumulateAndGet(blockNumber, BigInteger::max);
+    }
+
+    /**
+     * request latest block number of group.
+     */
+    public BigInteger refresh(int groupId) {
+        Web3j web3j = web3jMap.get(groupId);
+        if (web3j == null) {
+            throw new FrontException(ConstantCode.GROUPID_NOT_EXIST);
+        }
+        try {
+            BigInteger blockNumber = web3j.getBlockNumber().send().getBlockNumber();
+            observe(groupId, blockNumber);
+            return getHeight(groupId);
+        } catch (IOException e) {
+            log.error("refresh block height fail. groupId:{}", groupId, e);
+            throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
+        }
+    }
+
+    /**
+     * poll all groups without waiting, the scheduler thread never waits on a node.
+     * a group is not requested again until its last request returns.
+     */
+    @Scheduled(cron = "* * * * * ?")
+    public void poll() {
+        for (Map.Entry<Integer, Web3j> entry : web3jMap.entrySet()) {
+            Integer groupId = entry.getKey();
+            if (!pollingGroups.add(groupId)) {
+                continue;
+            }
+            try {
+                entry.getValue().getBlockNumber().sendAsync().whenComplete((response, e) -> {
+                    pollingGroups.remove(groupId);
+                    if (e != null) {
+                        log.warn("poll block height fail. groupId:{} msg:{}", groupId,
+                            e.getMessage());
+                    } else {
+                        observe(groupId, response.getBlockNumber());
+                    }
+                });
+            } catch (Exception e) {
+                pollingGroups.remove(groupId);
+                log.warn("poll block height fail. groupId:{}", groupId);
+            }
+        }
+        heightMap.keySet().retainAll(web3jMap.keySet());
+    }
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.web3api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.code.RetCode;
+import com.webank.webase.front.base.config.Web3Config;
+import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.web3api.entity.BlockRecord;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.fisco.bcos.web3j.protocol.ObjectMapperFactory;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionHash;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Transaction;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * BlockStreamService.
+ * write blocks of a range as ndjson, one BlockRecord per line.
+ * at most blockStreamPrefetch blocks are requested ahead of the one being written,
+ * and no more is requested while the client is slow to read, so memory does not grow with range.
+ * receipt calls in flight of all streams are at most blockStreamMaxReceipts.
+ */
+@Slf4j
+@Service
+public class BlockStreamService {
+
+    private static final int FLUSH_INTERVAL = 64;
+    private static final byte NEW_LINE = '\n';
+    // TransactionHash has no json property, a block without full transactions lists hashes
+    private static final ObjectWriter WRITER = ObjectMapperFactory.getObjectMapper().copy()
+        .registerModule(new SimpleModule().addSerializer(TransactionHash.class,
+            new JsonSerializer<TransactionHash>() {
+                @Override
+                public void serialize(TransactionHash value, JsonGenerator gen,
+                        SerializerProvider provider) throws IOException {
+                    gen.writeString(value.get());
+                }
+            }))
+        .writer();
+
+    @Autowired
+    private Map<Integer, Web3j> web3jMap;
+    @Autowired
+    private Constants constants;
+    @Autowired
+    private BlockCache blockCache;
+    @Autowired
+    private BlockHeightTracker blockHeightTracker;
+
+    private Semaphore receiptPermits;
+    // receipt calls waiting for a permit
+    private final Queue<Runnable> waitingReceipts = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        receiptPermits = new Semaphore(Math.max(1, constants.getBlockStreamMaxReceipts()));
+    }
+
+    /**
+     * check range before anything is written.
+     *
+     * @param to end of range, latest block if null or greater than latest
+     * @return end of range
+     */
+    public BigInteger checkRange(int groupId, BigInteger from, BigInteger to) {
+        if (!web3jMap.containsKey(groupId)) {
+            throw new FrontException(ConstantCode.GROUPID_NOT_EXIST);
+        }
+        BigInteger latest = blockHeightTracker.getHeight(groupId);
+        BigInteger end = to == null || to.compareTo(latest) > 0 ? latest : to;
+        if (from.signum() < 0 || from.compareTo(end) > 0) {
+            log.warn("checkRange fail. from:{} to:{} latest:{}", from, to, latest);
+            throw new FrontException(ConstantCode.BLOCK_RANGE_INVALID);
+        }
+        return end;
+    }
+
+    /**
+     * stream blocks from from to end in order.
+     * an error after the first line is written as the last line {"code":..,"message":..}
+     */
+    public void streamBlocks(int groupId, BigInteger from, BigInteger end,
+            boolean withTransactions, boolean withReceipts, OutputStream out) throws IOException {
+        log.info("start streamBlocks. groupId:{} from:{} end:{}", groupId, from, end);
+        Web3j web3j = web3jMap.get(groupId);
+        ObjectWriter writer = WRITER;
+        int prefetch = Math.max(1, constants.getBlockStreamPrefetch());
+        Deque<CompletableFuture<BlockRecord>> window = new ArrayDeque<>(prefetch);
+        BigInteger next = from;
+        long count = 0;
+        try {
+            while (true) {
+                while (window.size() < prefetch && next.compareTo(end) <= 0) {
+                    window.add(fetch(groupId, web3j, next, withTransactions, withReceipts));
+                    next = next.add(BigInteger.ONE);
+                }
+                CompletableFuture<BlockRecord> first = window.poll();
+                if (first == null) {
+                    break;
+                }
+                BlockRecord record = first.get(Web3Config.timeout, TimeUnit.MILLISECONDS);
+                out.write(writer.writeValueAsBytes(record));
+                out.write(NEW_LINE);
+                if (++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+            log.info("end streamBlocks. groupId:{} count:{}", groupId, count);
+        } catch (IOException e) {
+            log.warn("streamBlocks stopped, client closed. groupId:{} count:{}", groupId, count);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(writer, out, ConstantCode.NODE_REQUEST_FAILED);
+        } catch (ExecutionException e) {
+            log.error("streamBlocks fail. groupId:{} count:{}", groupId, count, e);
+            writeError(writer, out, e.getCause() instanceof FrontException
+                ? ((FrontException) e.getCause()).getRetCode() : ConstantCode.NODE_REQUEST_FAILED);
+        } catch (TimeoutException e) {
+            log.error("streamBlocks fail. groupId:{} count:{}", groupId, count, e);
+            writeError(writer, out, ConstantCode.NODE_REQUEST_FAILED);
+        } finally {
+            window.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private CompletableFuture<BlockRecord> fetch(int groupId, Web3j web3j, BigInteger number,
+            boolean withTransactions, boolean withReceipts) {
+        BcosBlock.Block cached = withTransactions ? blockCache.getByNumber(groupId, number) : null;
+        CompletableFuture<BcosBlock.Block> blockFuture = cached != null
+            ? CompletableFuture.completedFuture(cached)
+            : web3j.getBlockByNumber(DefaultBlockParameter.valueOf(number), withTransactions)
+                .sendAsync().thenApply(response -> {
+                    if (response.getBlock() == null) {
+                        log.warn("fetch block not found. groupId:{} number:{}", groupId, number);
+                        throw new FrontException(ConstantCode.BLOCK_NOT_FOUND);
+                    }
+                    return response.getBlock();
+                });
+        if (!withReceipts) {
+            return blockFuture.thenApply(block -> new BlockRecord(block, null));
+        }
+        // completed here, so that receipts still waiting are skipped once it is cancelled
+        CompletableFuture<BlockRecord> recordFuture = new CompletableFuture<>();
+        blockFuture.whenComplete((block, blockError) -> {
+            if (blockError != null) {
+                recordFuture.completeExceptionally(blockError);
+                return;
+            }
+            List<CompletableFuture<TransactionReceipt>> receiptFutures = new ArrayList<>();
+            for (TransactionResult<?> result : block.getTransactions() == null
+                ? Collections.<TransactionResult<?>>emptyList() : block.getTransactions()) {
+                Object value = result.get();
+                String transHash =
+                    value instanceof Transaction ? ((Transaction) value).getHash() : (String) value;
+                receiptFutures.add(getReceipt(web3j, transHash, recordFuture));
+            }
+            CompletableFuture.allOf(receiptFutures.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((v, receiptError) -> {
+                    if (receiptError != null) {
+                        recordFuture.completeExceptionally(receiptError);
+                        return;
+                    }
+                    List<TransactionReceipt> receipts = new ArrayList<>(receiptFutures.size());
+                    receiptFutures.forEach(future -> receipts.add(future.join()));
+                    recordFuture.complete(new BlockRecord(block, receipts));
+                });
+        });
+        return recordFuture;
+    }
+
+    /**
+     * request a receipt once a permit is free, the request is skipped if owner is done.
+     */
+    private CompletableFuture<TransactionReceipt> getReceipt(Web3j web3j, String transHash,
+            CompletableFuture<?> owner) {
+        CompletableFuture<TransactionReceipt> receiptFuture = new CompletableFuture<>();
+        waitingReceipts.add(() -> {
+            if (owner.isDone()) {
+                receiptPermits.release();
+                receiptFuture.completeExceptionally(new CancellationException());
+                return;
+            }
+            try {
+                web3j.getTransactionReceipt(transHash).sendAsync().whenComplete((response, e) -> {
+                    receiptPermits.release();
+                    runWaitingReceipts();
+                    if (e != null) {
+                        receiptFuture.completeExceptionally(e);
+                    } else {
+                        receiptFuture.complete(response.getTransactionReceipt().orElse(null));
+                    }
+                });
+            } catch (RuntimeException e) {
+                receiptPermits.release();
+                receiptFuture.completeExceptionally(e);
+            }
+        });
+        runWaitingReceipts();
+        return receiptFuture;
+    }
+
+    private void runWaitingReceipts() {
+        while (!waitingReceipts.isEmpty() && receiptPermits.tryAcquire()) {
+            Runnable task = waitingReceipts.poll();
+            if (task == null) {
+                receiptPermits.release();
+            } else {
+                task.run();
+            }
+        }
+    }
+
+    private static void writeError(ObjectWriter writer, OutputStream out, RetCode retCode) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("code", retCode.getCode());
+        error.put("message", retCode.getMessage());
+        try {
+            out.write(writer.writeValueAsBytes(error));
+            out.write(NEW_LINE);
+            out.flush();
+        } catch (IOException e) {
+            log.warn("streamBlocks write error line fail.");
+        }
+    }
+}
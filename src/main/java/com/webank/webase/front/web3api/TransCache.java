@@ -0,0 +1,148 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.web3api;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.metrics.CacheMetrics;
+import com.webank.webase.front.metrics.MetricsSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import org.apache.commons.lang3.StringUtils;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Transaction;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * TransCache.
+ * committed transactions and receipts by groupId and hash, they never change once committed.
+ * hashes not found on node are remembered for transNegativeTtl millis,
+ * so that polling a pending transaction does not hit the node on every request.
+ */
+@Component
+public class TransCache implements MetricsSource {
+
+    @Autowired
+    private Constants constants;
+
+    private Cache<String, Transaction> transCache;
+    private Cache<String, TransactionReceipt> receiptCache;
+    private Cache<String, Boolean> notFoundTransCache;
+    private Cache<String, Boolean> notFoundReceiptCache;
+
+    @PostConstruct
+    public void init() {
+        transCache = CacheBuilder.newBuilder().maximumSize(constants.getTransCacheSize())
+            .recordStats().build();
+        receiptCache = CacheBuilder.newBuilder().maximumSize(constants.getTransCacheSize())
+            .recordStats().build();
+        notFoundTransCache = CacheBuilder.newBuilder()
+            .maximumSize(constants.getTransCacheSize())
+            .expireAfterWrite(constants.getTransNegativeTtl(), TimeUnit.MILLISECONDS).build();
+        notFoundReceiptCache = CacheBuilder.newBuilder()
+            .maximumSize(constants.getTransCacheSize())
+            .expireAfterWrite(constants.getTransNegativeTtl(), TimeUnit.MILLISECONDS).build();
+    }
+
+    public Transaction getTransaction(int groupId, String transHash) {
+        return transCache.getIfPresent(key(groupId, transHash));
+    }
+
+    public TransactionReceipt getReceipt(int groupId, String transHash) {
+        return receiptCache.getIfPresent(key(groupId, transHash));
+    }
+
+    /**
+     * whether transHash was recently not found on node.
+     */
+    public boolean isTransNotFound(int groupId, String transHash) {
+        return notFoundTransCache.getIfPresent(key(groupId, transHash)) != null;
+    }
+
+    public boolean isReceiptNotFound(int groupId, String transHash) {
+        return notFoundReceiptCache.getIfPresent(key(groupId, transHash)) != null;
+    }
+
+    /**
+     * cache transaction from node, null is cached as not found
+     * and uncommitted transaction is not cached.
+     */
+    public void putTransaction(int groupId, String transHash, Transaction transaction) {
+        String key = key(groupId, transHash);
+        if (transaction == null) {
+            notFoundTransCache.put(key, Boolean.TRUE);
+            return;
+        }
+        if (StringUtils.isBlank(transaction.getBlockHash())) {
+            return;
+        }
+        transCache.put(key, transaction);
+        notFoundTransCache.invalidate(key);
+    }
+
+    /**
+     * cache receipt from node, null is cached as not found.
+     */
+    public void putReceipt(int groupId, String transHash, TransactionReceipt receipt) {
+        String key = key(groupId, transHash);
+        if (receipt == null) {
+            notFoundReceiptCache.put(key, Boolean.TRUE);
+            return;
+        }
+        receiptCache.put(key, receipt);
+        notFoundReceiptCache.invalidate(key);
+    }
+
+    /**
+     * cache transactions of a block fetched with full transactions.
+     */
+    public void putBlock(int groupId, BcosBlock.Block block) {
+        if (block == null || block.getTransactions() == null) {
+            return;
+        }
+        for (TransactionResult<?> result : block.getTransactions()) {
+            if (result instanceof Transaction) {
+                Transaction transaction = (Transaction) result;
+                if (transaction.getHash() != null) {
+                    putTransaction(groupId, transaction.getHash(), transaction);
+                }
+            }
+        }
+    }
+
+    private static String key(int groupId, String transHash) {
+        return groupId + "_" + transHash.toLowerCase();
+    }
+
+    @Override
+    public String getName() {
+        return "transCache";
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("transaction", CacheMetrics.of(transCache));
+        metrics.put("receipt", CacheMetrics.of(receiptCache));
+        metrics.put("notFoundTransaction", notFoundTransCache.size());
+        metrics.put("notFoundReceipt", notFoundReceiptCache.size());
+        return metrics;
+    }
+}
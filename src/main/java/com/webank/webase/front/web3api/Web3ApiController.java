@@ -23,8 +23,10 @@ import io.swagger.annotations.ApiOperation;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
 
 import org.fisco.bcos.web3j.protocol.core.methods.response.*;
 import org.fisco.bcos.web3j.protocol.core.methods.response.NodeVersion.Version;
@@ -44,8 +46,12 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping(value = "/{groupId}/web3")
 public class Web3ApiController {
 
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
     @Autowired
     Web3ApiService web3ApiService;
+    @Autowired
+    BlockStreamService blockStreamService;
 
     @ApiOperation(value = "getBlockNumber", notes = "Get the latest block height of the node")
     @GetMapping("/blockNumber")
@@ -60,6 +66,26 @@ public class Web3ApiController {
         return web3ApiService.getBlockByNumber(groupId,blockNumber);
     }
 
+    @ApiOperation(value = "streamBlocks",
+            notes = "Stream blocks of a range as ndjson, to the latest block if to is absent")
+    @ApiImplicitParams({
+        @ApiImplicitParam(name = "from", value = "first blockNumber", required = true, dataType = "BigInteger"),
+        @ApiImplicitParam(name = "to", value = "last blockNumber", dataType = "BigInteger"),
+        @ApiImplicitParam(name = "withTransactions", value = "full transactions or hashes", dataType = "Boolean"),
+        @ApiImplicitParam(name = "withReceipts", value = "include receipts", dataType = "Boolean")})
+    @GetMapping("/blocks")
+    public void streamBlocks(@PathVariable int groupId, @RequestParam BigInteger from,
+            @RequestParam(required = false) BigInteger to,
+            @RequestParam(defaultValue = "true") boolean withTransactions,
+            @RequestParam(defaultValue = "false") boolean withReceipts,
+            HttpServletResponse response) throws IOException {
+        BigInteger end = blockStreamService.checkRange(groupId, from, to);
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        blockStreamService.streamBlocks(groupId, from, end, withTransactions, withReceipts,
+            response.getOutputStream());
+    }
+
     @ApiOperation(value = "getBlockByHash", notes = "Get block information based on block hash")
     @ApiImplicitParam(name = "blockHash", value = "blockHash", required = true, dataType = "String", paramType = "path")
     @GetMapping("/blockByHash/{blockHash}")
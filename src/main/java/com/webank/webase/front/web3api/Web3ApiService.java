@@ -16,11 +16,12 @@ package com.webank.webase.front.web3api;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONArray;
 import com.webank.webase.front.base.code.ConstantCode;
-import com.webank.webase.front.util.FrontUtils;
 import com.webank.webase.front.base.enums.DataStatus;
 import com.webank.webase.front.base.exception.FrontException;
 import com.webank.webase.front.base.config.NodeConfig;
 import com.webank.webase.front.base.config.Web3Config;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.indexer.IndexerService;
 import com.webank.webase.front.web3api.entity.NodeStatusInfo;
 import com.webank.webase.front.web3api.entity.PeerOfConsensusStatus;
 import com.webank.webase.front.web3api.entity.PeerOfSyncStatus;
@@ -34,7 +35,9 @@ import org.fisco.bcos.web3j.protocol.channel.ChannelEthereumService;
 import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
 import org.fisco.bcos.web3j.protocol.core.methods.response.*;
 import org.fisco.bcos.web3j.protocol.core.methods.response.NodeVersion.Version;
+import org.fisco.bcos.web3j.utils.Async;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
@@ -43,7 +46,9 @@ import java.math.BigInteger;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 
 /**
@@ -60,11 +65,32 @@ public class Web3ApiService {
     @Autowired
     GroupChannelConnectionsConfig groupChannelConnectionsConfig;
     @Autowired
+    @Qualifier("sdkThreadPool")
     ThreadPoolTaskExecutor threadPoolTaskExecutor;
+    @Autowired
+    BlockCache blockCache;
+    @Autowired
+    TransCache transCache;
+    @Autowired
+    BlockHeightTracker blockHeightTracker;
+    @Autowired
+    IndexerService indexerService;
+    @Autowired
+    Constants constants;
 
-    private static Map<Integer, List<NodeStatusInfo>> nodeStatusMap = new HashMap<>();
+    /**
+     * latest node status by groupId, refreshed at most once per CHECK_NODE_WAIT_MIN_MILLIS.
+     */
+    private final Map<Integer, NodeStatusSnapshot> nodeStatusMap = new ConcurrentHashMap<>();
+    /**
+     * refresh in flight by groupId, shared by concurrent callers.
+     */
+    private final Map<Integer, CompletableFuture<List<NodeStatusInfo>>> nodeStatusRefreshMap =
+        new ConcurrentHashMap<>();
     private static final Long CHECK_NODE_WAIT_MIN_MILLIS = 5000L;
     private static final int HASH_OF_TRANSACTION_LENGTH = 66;
+    private static final int ADDRESS_LENGTH = 42;
+    private static final int SEARCH_PAGE_SIZE = 10;
 
     /**
      * getBlockNumber.
@@ -74,6 +100,7 @@ public class Web3ApiService {
         BigInteger blockNumber;
         try {
             blockNumber = web3jMap.get(groupId).getBlockNumber().send().getBlockNumber();
+            blockHeightTracker.observe(groupId, blockNumber);
         } catch (IOException e) {
             log.error("getBlockNumber fail.", e);
             throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
@@ -87,11 +114,15 @@ public class Web3ApiService {
      * @param blockNumber blockNumber
      */
     public BcosBlock.Block getBlockByNumber(int groupId, BigInteger blockNumber) {
-        BcosBlock.Block block;
+        BcosBlock.Block block = blockCache.getByNumber(groupId, blockNumber);
+        if (block != null) {
+            return block;
+        }
         try {
             block = web3jMap.get(groupId)
                 .getBlockByNumber(DefaultBlockParameter.valueOf(blockNumber), true)
                 .send().getBlock();
+            cacheBlock(groupId, block);
         } catch (Exception e) {
             log.info("get blocknumber failed" + e.getMessage());
             log.error("getBlockByNumber fail. blockNumber:{} , groupID: {}", blockNumber, groupId);
@@ -106,10 +137,13 @@ public class Web3ApiService {
      * @param blockHash blockHash
      */
     public BcosBlock.Block getBlockByHash(int groupId, String blockHash) {
-        BcosBlock.Block block;
+        BcosBlock.Block block = blockCache.getByHash(groupId, blockHash);
+        if (block != null) {
+            return block;
+        }
         try {
             block = web3jMap.get(groupId).getBlockByHash(blockHash, true).send().getBlock();
-
+            cacheBlock(groupId, block);
         } catch (IOException e) {
             log.error("getBlockByHash fail. blockHash:{} ", blockHash);
             throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
@@ -123,14 +157,19 @@ public class Web3ApiService {
      * @param blockNumber blockNumber
      */
     public int getBlockTransCntByNumber(int groupId, BigInteger blockNumber) {
+        BcosBlock.Block block = blockCache.getByNumber(groupId, blockNumber);
+        if (block != null) {
+            return block.getTransactions().size();
+        }
         int transCnt;
         try {
             if (blockNumberCheck(groupId, blockNumber)) {
                 throw new FrontException("ConstantCode.NODE_REQUEST_FAILED");
             }
-            BcosBlock.Block block = web3jMap.get(groupId)
+            block = web3jMap.get(groupId)
                 .getBlockByNumber(DefaultBlockParameter.valueOf(blockNumber), true)
                 .send().getBlock();
+            cacheBlock(groupId, block);
             transCnt = block.getTransactions().size();
 
         } catch (IOException e) {
@@ -161,14 +200,17 @@ public class Web3ApiService {
      * @param transHash transHash
      */
     public TransactionReceipt getTransactionReceipt(int groupId, String transHash) {
-
-        TransactionReceipt transactionReceipt = null;
+        TransactionReceipt transactionReceipt = transCache.getReceipt(groupId, transHash);
+        if (transactionReceipt != null || transCache.isReceiptNotFound(groupId, transHash)) {
+            return transactionReceipt;
+        }
         try {
             Optional<TransactionReceipt> opt = web3jMap.get(groupId)
                 .getTransactionReceipt(transHash).send().getTransactionReceipt();
             if (opt.isPresent()) {
                 transactionReceipt = opt.get();
             }
+            transCache.putReceipt(groupId, transHash, transactionReceipt);
         } catch (IOException e) {
             log.error("getTransactionReceipt fail. transHash:{} ", transHash);
             throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
@@ -182,14 +224,17 @@ public class Web3ApiService {
      * @param transHash transHash
      */
     public Transaction getTransactionByHash(int groupId, String transHash) {
-
-        Transaction transaction = null;
+        Transaction transaction = transCache.getTransaction(groupId, transHash);
+        if (transaction != null || transCache.isTransNotFound(groupId, transHash)) {
+            return transaction;
+        }
         try {
             Optional<Transaction> opt = web3jMap.get(groupId).getTransactionByHash(transHash).send()
                 .getTransaction();
             if (opt.isPresent()) {
                 transaction = opt.get();
             }
+            transCache.putTransaction(groupId, transHash, transaction);
         } catch (IOException e) {
             log.error("getTransactionByHash fail. transHash:{} ", transHash);
             throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
@@ -256,7 +301,10 @@ public class Web3ApiService {
      */
     public Transaction getTransByBlockHashAndIndex(int groupId, String blockHash,
         BigInteger transactionIndex) {
-
+        BcosBlock.Block block = blockCache.getByHash(groupId, blockHash);
+        if (block != null) {
+            return BlockCache.getTransaction(block, transactionIndex);
+        }
         Transaction transaction = null;
         try {
             Optional<Transaction> opt = web3jMap.get(groupId)
@@ -280,6 +328,10 @@ public class Web3ApiService {
      */
     public Transaction getTransByBlockNumberAndIndex(int groupId, BigInteger blockNumber,
         BigInteger transactionIndex) {
+        BcosBlock.Block block = blockCache.getByNumber(groupId, blockNumber);
+        if (block != null) {
+            return BlockCache.getTransaction(block, transactionIndex);
+        }
         Transaction transaction = null;
         try {
             if (blockNumberCheck(groupId, blockNumber)) {
@@ -298,53 +350,112 @@ public class Web3ApiService {
         return transaction;
     }
 
-    private boolean blockNumberCheck(int groupId, BigInteger blockNumber) {
-        BigInteger currentNumber = null;
-        try {
-            currentNumber = web3jMap.get(groupId).getBlockNumber().send().getBlockNumber();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * cache block and its transactions.
+     */
+    private void cacheBlock(int groupId, BcosBlock.Block block) {
+        blockCache.put(groupId, block);
+        transCache.putBlock(groupId, block);
+        if (block != null && block.getNumberRaw() != null) {
+            blockHeightTracker.observe(groupId, block.getNumber());
         }
-        System.out.println("****" + currentNumber);
-        return  (blockNumber.compareTo(currentNumber) > 0) ;
-
     }
 
+    /**
+     * whether blockNumber is greater than latest, by local tracked height.
+     */
+    private boolean blockNumberCheck(int groupId, BigInteger blockNumber) {
+        return blockHeightTracker.isAhead(groupId, blockNumber);
+    }
 
     /**
      * nodeHeartBeat.
      */
     public List<NodeStatusInfo> getNodeStatusList(int groupId) {
+        NodeStatusSnapshot snapshot = nodeStatusMap.get(groupId);
+        if (snapshot != null
+            && System.currentTimeMillis() - snapshot.updateTime < CHECK_NODE_WAIT_MIN_MILLIS) {
+            return snapshot.statusList;
+        }
+        CompletableFuture<List<NodeStatusInfo>> future = new CompletableFuture<>();
+        CompletableFuture<List<NodeStatusInfo>> inFlight =
+            nodeStatusRefreshMap.putIfAbsent(groupId, future);
+        if (inFlight == null) {
+            try {
+                future.complete(refreshNodeStatusList(groupId));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                nodeStatusRefreshMap.remove(groupId, future);
+            }
+            inFlight = future;
+        }
+        try {
+            return inFlight.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FrontException) {
+                throw (FrontException) e.getCause();
+            }
+            throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
+        }
+    }
+
+    /**
+     * request peers, observers, sync status and consensus status concurrently.
+     */
+    private List<NodeStatusInfo> refreshNodeStatusList(int groupId) {
         log.info("start getNodeStatusList. groupId:{}", groupId);
         try {
-            List<NodeStatusInfo> statusList = new ArrayList<>();
-            List<String> peerStrList = getGroupPeers(groupId);
-            List<String> observerList = getObserverList(groupId);
-            SyncStatus syncStatus = JSON.parseObject(getSyncStatus(groupId), SyncStatus.class);
-            List<PeerOfConsensusStatus> consensusList = getPeerOfConsensusStatus(groupId);
-            if (Objects.isNull(peerStrList) || peerStrList.isEmpty()|| consensusList == null) {
+            Web3j web3j = web3jMap.get(groupId);
+            if (web3j == null) {
+                throw new FrontException(ConstantCode.GROUPID_NOT_EXIST);
+            }
+            CompletableFuture<GroupPeers> peersFuture = web3j.getGroupPeers().sendAsync();
+            CompletableFuture<ObserverList> observerFuture = web3j.getObserverList().sendAsync();
+            CompletableFuture<String> syncFuture =
+                Async.run(() -> web3j.getSyncStatus().sendForReturnString());
+            CompletableFuture<String> consensusFuture =
+                Async.run(() -> web3j.getConsensusStatus().sendForReturnString());
+
+            List<String> peerStrList = peersFuture.get().getGroupPeers();
+            List<String> observerList = observerFuture.get().getObserverList();
+            SyncStatus syncStatus = JSON.parseObject(syncFuture.get(), SyncStatus.class);
+            List<PeerOfConsensusStatus> consensusList =
+                parsePeerOfConsensusStatus(consensusFuture.get());
+            if (Objects.isNull(peerStrList) || peerStrList.isEmpty()) {
                 log.info("end getNodeStatusList. peerStrList is empty");
                return Collections.emptyList();
             }
+            Set<String> observerSet =
+                observerList == null ? Collections.emptySet() : new HashSet<>(observerList);
+            Map<String, BigInteger> viewMap = new HashMap<>();
+            for (PeerOfConsensusStatus consensus : consensusList) {
+                viewMap.putIfAbsent(consensus.getNodeId(), consensus.getView());
+            }
+            NodeStatusSnapshot snapshot = nodeStatusMap.get(groupId);
+            List<NodeStatusInfo> statusList = new ArrayList<>(peerStrList.size());
             for (String peer : peerStrList) {
-                int nodeType = 0;   //0-consensus;1-observer
-                if (observerList != null) {
-                    nodeType = observerList.stream()
-                            .filter(observer -> peer.equals(observer)).map(c -> 1).findFirst()
-                            .orElse(0);
-                }
+                int nodeType = observerSet.contains(peer) ? 1 : 0;   //0-consensus;1-observer
                 BigInteger blockNumberOnChain = getBlockNumberOfNodeOnChain(syncStatus, peer);
-                BigInteger latestView = consensusList.stream()
-                    .filter(cl -> peer.equals(cl.getNodeId())).map(c -> c.getView()).findFirst()
-                    .orElse(BigInteger.ZERO);//pbftView
+                BigInteger latestView = viewMap.getOrDefault(peer, BigInteger.ZERO);//pbftView
                 //check node status
-                statusList.add(checkNodeStatus(groupId, peer, blockNumberOnChain, latestView, nodeType));
+                statusList.add(checkNodeStatus(groupId, snapshot, peer, blockNumberOnChain,
+                    latestView, nodeType));
             }
 
-            nodeStatusMap.put(groupId, statusList);
+            nodeStatusMap.put(groupId,
+                new NodeStatusSnapshot(Collections.unmodifiableList(statusList)));
             log.info("end getNodeStatusList. groupId:{} statusList:{}", groupId,
                 JSON.toJSONString(statusList));
             return statusList;
+        } catch (FrontException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
         } catch (Exception e) {
             log.error("nodeHeartBeat Exception.", e);
             throw new FrontException(ConstantCode.NODE_REQUEST_FAILED);
@@ -354,31 +465,34 @@ public class Web3ApiService {
     /**
      * check node status.
      */
-    private NodeStatusInfo checkNodeStatus(int groupId, String nodeId, BigInteger chainBlockNumber,
-        BigInteger chainView, int nodeType) {
+    private NodeStatusInfo checkNodeStatus(int groupId, NodeStatusSnapshot snapshot,
+        String nodeId, BigInteger chainBlockNumber, BigInteger chainView, int nodeType) {
         log.info("start checkNodeStatus. groupId:{} nodeId:{} blockNumber:{} chainView:{}", groupId,
                 nodeId, chainBlockNumber, chainView);
 
-        if (Objects.isNull(nodeStatusMap.get(groupId))) {
+        if (Objects.isNull(snapshot)) {
             log.info("end checkNodeStatus. no cache group:{}", groupId);
             return new NodeStatusInfo(nodeId, chainBlockNumber, chainView,
                 DataStatus.NORMAL.getValue(), LocalDateTime.now());
         } else {
-            List<NodeStatusInfo> statusList = nodeStatusMap.get(groupId);
-            NodeStatusInfo localNodeStatus = statusList.stream()
+            NodeStatusInfo cachedNodeStatus = snapshot.statusList.stream()
                 .filter(s -> nodeId.equals(s.getNodeId())).findFirst().orElse(null);
-            if (Objects.isNull(localNodeStatus)) {
+            if (Objects.isNull(cachedNodeStatus)) {
                 log.info("end checkNodeStatus. no cache node:{}", nodeId);
                 return new NodeStatusInfo(nodeId, chainBlockNumber, chainView,
                     DataStatus.NORMAL.getValue(), LocalDateTime.now());
             }
 
-            LocalDateTime latestUpdate = localNodeStatus.getLatestStatusUpdateTime();
+            LocalDateTime latestUpdate = cachedNodeStatus.getLatestStatusUpdateTime();
             Long subTime = Duration.between(latestUpdate, LocalDateTime.now()).toMillis();
             if (subTime < CHECK_NODE_WAIT_MIN_MILLIS) {
                 log.info("checkNodeStatus jump over. nodeId:{} subTime:{}", nodeId, subTime);
-                return localNodeStatus;
+                return cachedNodeStatus;
             }
+            // snapshot is read by other threads, update a copy
+            NodeStatusInfo localNodeStatus = new NodeStatusInfo(cachedNodeStatus.getNodeId(),
+                cachedNodeStatus.getBlockNumber(), cachedNodeStatus.getPbftView(),
+                cachedNodeStatus.getStatus(), cachedNodeStatus.getLatestStatusUpdateTime());
 
             BigInteger localBlockNumber = localNodeStatus.getBlockNumber();
             BigInteger localPbftView = localNodeStatus.getPbftView();
@@ -393,7 +507,7 @@ public class Web3ApiService {
                     localNodeStatus.setStatus(DataStatus.NORMAL.getValue());
                 }
             } else {
-                if (!chainBlockNumber.equals(getBlockNumber(groupId))) {
+                if (!chainBlockNumber.equals(blockHeightTracker.getHeight(groupId))) {
                     log.warn("node[{}] is invalid. localNumber:{} chainNumber:{} localView:{} chainView:{}",
                             nodeId, localBlockNumber, chainBlockNumber, localPbftView, chainView);
                     localNodeStatus.setStatus(DataStatus.INVALID.getValue());
@@ -432,26 +546,37 @@ public class Web3ApiService {
 
 
     /**
-     * get peer of consensusStatus
+     * get peer of consensusStatus.
+     * the peer list is the first array in consensus status
      */
-    private List<PeerOfConsensusStatus> getPeerOfConsensusStatus(int groupId) {
-        String consensusStatusJson = getConsensusStatus(groupId);
+    static List<PeerOfConsensusStatus> parsePeerOfConsensusStatus(String consensusStatusJson) {
         if (StringUtils.isBlank(consensusStatusJson)) {
             return Collections.emptyList();
         }
         JSONArray jsonArr = JSONArray.parseArray(consensusStatusJson);
-        List<Object> dataIsList = jsonArr.stream().filter(jsonObj -> jsonObj instanceof List)
-            .map(arr -> {
-                Object obj = JSONArray.parseArray(JSON.toJSONString(arr)).get(0);
+        for (Object item : jsonArr) {
+            if (item instanceof JSONArray) {
                 try {
-                    FrontUtils.object2JavaBean(obj, PeerOfConsensusStatus.class);
+                    return ((JSONArray) item).toJavaList(PeerOfConsensusStatus.class);
                 } catch (Exception e) {
-                    return null;
+                    log.debug("parsePeerOfConsensusStatus skip item:{}", item);
                 }
-                return arr;
-            }).collect(Collectors.toList());
-        return JSONArray
-            .parseArray(JSON.toJSONString(dataIsList.get(0)), PeerOfConsensusStatus.class);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * node status of one group at updateTime.
+     */
+    private static class NodeStatusSnapshot {
+
+        private final List<NodeStatusInfo> statusList;
+        private final long updateTime = System.currentTimeMillis();
+
+        private NodeStatusSnapshot(List<NodeStatusInfo> statusList) {
+            this.statusList = statusList;
+        }
     }
 
 
@@ -582,6 +707,10 @@ public class Web3ApiService {
             return getBlockByNumber(groupId, new BigInteger(input));
         } else if (input.length() == HASH_OF_TRANSACTION_LENGTH) {
             return getTransactionByHash(groupId, input);
+        } else if (input.length() == ADDRESS_LENGTH && constants.isIndexerEnabled()) {
+            // an address is only searchable in the index
+            return indexerService.queryTrans(groupId, input, null, null, 1,
+                SEARCH_PAGE_SIZE).getContent();
         }
 
         return null;
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.benchmark;
+
+import com.webank.webase.front.util.ContractAbiUtil;
+import com.webank.webase.front.util.FunctionDescriptor;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * lookup cost of ContractAbiUtil with 10k contracts * 10 versions.
+ * run by: gradle jmh -Pbenchmark=AbiRegistryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AbiRegistryBenchmark {
+
+    private static final int CONTRACT_COUNT = 10000;
+    private static final int VERSION_COUNT = 10;
+    private static final int KEY_COUNT = 1 << 16;
+
+    private String[] contractNames = new String[KEY_COUNT];
+    private String[] versions = new String[KEY_COUNT];
+    private String[] funcNames = new String[KEY_COUNT];
+
+    @Setup
+    public void setup() throws Exception {
+        List<AbiDefinition> abiList = ContractAbiUtil
+            .loadContractDefinition(new File("src/test/resources/solidity/HelloWorld.abi"));
+        for (int i = 0; i < CONTRACT_COUNT; i++) {
+            for (int j = 0; j < VERSION_COUNT; j++) {
+                ContractAbiUtil.setFunctionFromAbi("bench" + i, "v" + j, abiList);
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            contractNames[i] = "bench" + random.nextInt(CONTRACT_COUNT);
+            versions[i] = "v" + random.nextInt(VERSION_COUNT);
+            funcNames[i] = random.nextBoolean() ? "get" : "set";
+        }
+    }
+
+    private int nextIndex() {
+        return ThreadLocalRandom.current().nextInt(KEY_COUNT);
+    }
+
+    @Benchmark
+    public FunctionDescriptor getFunction() {
+        int i = nextIndex();
+        return ContractAbiUtil.getFunction(contractNames[i], versions[i], funcNames[i]);
+    }
+
+    @Benchmark
+    public boolean ifContractAbiExisted() {
+        int i = nextIndex();
+        return ContractAbiUtil.ifContractAbiExisted(contractNames[i], versions[i]);
+    }
+
+    @Benchmark
+    public int separateLookups() {
+        int i = nextIndex();
+        String constant = ContractAbiUtil.ifConstantFunc(contractNames[i], funcNames[i], versions[i]);
+        List<String> inputs = ContractAbiUtil.getFuncInputType(contractNames[i], funcNames[i], versions[i]);
+        List<String> outputs = ContractAbiUtil.getFuncOutputType(contractNames[i], funcNames[i], versions[i]);
+        return constant.length() + inputs.size() + outputs.size();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(AbiRegistryBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.benchmark;
+
+import com.webank.webase.front.util.AbiUtil;
+import com.webank.webase.front.util.ParsedAbi;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.fisco.bcos.web3j.abi.EventEncoder;
+import org.fisco.bcos.web3j.abi.EventValues;
+import org.fisco.bcos.web3j.abi.FunctionEncoder;
+import org.fisco.bcos.web3j.abi.TypeEncoder;
+import org.fisco.bcos.web3j.abi.TypeReference;
+import org.fisco.bcos.web3j.abi.datatypes.Address;
+import org.fisco.bcos.web3j.abi.datatypes.Event;
+import org.fisco.bcos.web3j.abi.datatypes.Utf8String;
+import org.fisco.bcos.web3j.abi.datatypes.generated.Uint256;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition;
+import org.fisco.bcos.web3j.protocol.core.methods.response.AbiDefinition.NamedType;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.fisco.bcos.web3j.tx.Contract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * decoding cost of a receipt with 200 logs of a contract with 50 events.
+ * nestedLoop is the former receiptParse, which only keeps the first occurrence of each event
+ * and only decodes abis without indexed params.
+ * run by: gradle jmh -Pbenchmark=ReceiptParseBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiptParseBenchmark {
+
+    private static final int EVENT_COUNT = 50;
+    private static final int LOG_COUNT = 200;
+    private static final String FROM = "0x1f9aa3ad9a1d5c0b3e6a8b0f6b0e1f7e8c9a0b1c";
+
+    private List<AbiDefinition> plainAbi;
+    private TransactionReceipt plainReceipt;
+    private ParsedAbi indexedAbi;
+    private TransactionReceipt indexedReceipt;
+
+    @Setup
+    public void setup() {
+        plainAbi = buildAbi(false);
+        plainReceipt = buildReceipt(false);
+        indexedAbi = AbiUtil.getParsedAbiOfDefinitions(buildAbi(true));
+        indexedReceipt = buildReceipt(true);
+    }
+
+    private static List<AbiDefinition> buildAbi(boolean indexed) {
+        List<AbiDefinition> abiList = new ArrayList<>(EVENT_COUNT);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            List<NamedType> inputs = Arrays.asList(new NamedType("from", "address", indexed),
+                new NamedType("value", "uint256", false), new NamedType("memo", "string", false));
+            abiList.add(new AbiDefinition(false, inputs, "Event" + i, null, "event", false));
+        }
+        return abiList;
+    }
+
+    private static TransactionReceipt buildReceipt(boolean indexed) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Log> logs = new ArrayList<>(LOG_COUNT);
+        for (int i = 0; i < LOG_COUNT; i++) {
+            String topic0 = EventEncoder.buildEventSignature(
+                "Event" + random.nextInt(EVENT_COUNT) + "(address,uint256,string)");
+            Log log = new Log();
+            if (indexed) {
+                log.setTopics(Arrays.asList(topic0, "0x" + TypeEncoder.encode(new Address(FROM))));
+                log.setData(FunctionEncoder.encodeConstructor(Arrays.asList(
+                    new Uint256(BigInteger.valueOf(i)), new Utf8String("memo" + i))));
+            } else {
+                log.setTopics(Arrays.asList(topic0));
+                log.setData(FunctionEncoder.encodeConstructor(Arrays.asList(new Address(FROM),
+                    new Uint256(BigInteger.valueOf(i)), new Utf8String("memo" + i))));
+            }
+            logs.add(log);
+        }
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setLogs(logs);
+        return receipt;
+    }
+
+    @Benchmark
+    public Object nestedLoop() throws Exception {
+        Map<String, Object> resultMap = new HashMap<>();
+        for (AbiDefinition abiDefinition : plainAbi) {
+            List<String> funcInputTypes = AbiUtil.getFuncInputType(abiDefinition);
+            List<TypeReference<?>> finalOutputs = AbiUtil.outputFormat(funcInputTypes);
+            Event event = new Event(abiDefinition.getName(), finalOutputs);
+            for (Log logInfo : plainReceipt.getLogs()) {
+                EventValues eventValues = Contract.staticExtractEventParameters(event, logInfo);
+                if (eventValues != null) {
+                    resultMap.put(abiDefinition.getName(), AbiUtil
+                        .callResultParse(funcInputTypes, eventValues.getNonIndexedValues()));
+                    break;
+                }
+            }
+        }
+        return resultMap;
+    }
+
+    @Benchmark
+    public Object topicMap() throws Exception {
+        return AbiUtil.receiptParse(plainReceipt, plainAbi);
+    }
+
+    @Benchmark
+    public Object topicMapIndexed() throws Exception {
+        return AbiUtil.receiptParse(indexedReceipt, indexedAbi);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(ReceiptParseBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.webank.webase.front.base.response.BaseResponse;
+import com.webank.webase.front.keystore.SignPipeline;
+import com.webank.webase.front.keystore.SignPipelineTest;
+import com.webank.webase.front.keystore.SignStubServer;
+import com.webank.webase.front.keystore.entity.EncodeInfo;
+import com.webank.webase.front.util.CommonUtils;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * sign throughput against a stub WeBASE-Sign with 2ms latency,
+ * one request per call as before vs SignPipeline.
+ * run by: gradle jmh -Pbenchmark=SignPipelineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(32)
+@Fork(1)
+public class SignPipelineBenchmark {
+
+    private static final int USER_COUNT = 100;
+
+    private SignStubServer server;
+    private SignPipeline pipeline;
+    private RestTemplate simpleRestTemplate;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new SignStubServer(2);
+        pipeline = new SignPipeline(SignPipelineTest.pooledRestTemplate(32), server.getSignUrl(),
+            10000, 32);
+        pipeline.start();
+        simpleRestTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+        server.stop();
+    }
+
+    @Benchmark
+    public Object direct() {
+        HttpEntity<String> formEntity = new HttpEntity<>(JSON.toJSONString(nextRequest()),
+            CommonUtils.buildHeaders());
+        return simpleRestTemplate.postForObject(server.getSignUrl(), formEntity,
+            BaseResponse.class);
+    }
+
+    @Benchmark
+    public Object pipeline() throws Exception {
+        CompletableFuture<String> future = pipeline.sign(nextRequest());
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private static EncodeInfo nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return SignPipelineTest.encodeInfo(random.nextInt(USER_COUNT),
+            "0x" + Long.toHexString(random.nextLong()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(SignPipelineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014-2019  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.event.entity.DecodedEvent;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class EventStreamServiceTest {
+
+    private EventStreamService eventStreamService;
+    private ThreadPoolTaskExecutor eventSendExecutor;
+
+    @Before
+    public void setUp() {
+        eventSendExecutor = new ThreadPoolTaskExecutor();
+        eventSendExecutor.setCorePoolSize(2);
+        eventSendExecutor.setMaxPoolSize(2);
+        eventSendExecutor.setQueueCapacity(10);
+        eventSendExecutor.initialize();
+        eventStreamService = new EventStreamService();
+        ReflectionTestUtils.setField(eventStreamService, "constants", new Constants());
+        ReflectionTestUtils.setField(eventStreamService, "eventSendExecutor", eventSendExecutor);
+    }
+
+    @After
+    public void tearDown() {
+        eventSendExecutor.shutdown();
+    }
+
+    @Test
+    public void testStalledClientDoesNotBlockOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        TestEmitter slow = new TestEmitter(stalled, null);
+        TestEmitter fast = new TestEmitter(null, delivered);
+        EventSubscription slowSubscription = subscription("slow", slow, 2);
+        EventSubscription fastSubscription = subscription("fast", fast, 10);
+
+        send(slowSubscription, event(0));
+        waitUntil(() -> slow.sent.get() == 1);
+        for (int i = 0; i < 3; i++) {
+            if (i > 0) {
+                send(slowSubscription, event(i));
+            }
+            send(fastSubscription, event(i));
+        }
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertFalse(fastSubscription.isClosed());
+
+        // one event is being written, the queue of 2 overflows at the fourth
+        send(slowSubscription, event(3));
+        assertTrue(slowSubscription.isClosed());
+        assertTrue(slow.failed);
+        stalled.countDown();
+        waitUntil(() -> !slowSubscription.getDraining().get());
+        assertEquals(1, slow.sent.get());
+    }
+
+    private void send(EventSubscription subscription, DecodedEvent event) {
+        ReflectionTestUtils.invokeMethod(eventStreamService, "send", subscription, event);
+    }
+
+    private static EventSubscription subscription(String id, SseEmitter emitter, int queueSize) {
+        return new EventSubscription(id, 1, "0xabc", Collections.emptySet(), null, emitter,
+            queueSize);
+    }
+
+    private static DecodedEvent event(int logIndex) {
+        DecodedEvent event = new DecodedEvent();
+        event.setBlockNumber(BigInteger.ONE);
+        event.setTransIndex(BigInteger.ZERO);
+        event.setLogIndex(BigInteger.valueOf(logIndex));
+        return event;
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.met() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.met());
+    }
+
+    private interface Condition {
+        boolean met();
+    }
+
+    /**
+     * emitter without servlet, a write blocks until released if stalled.
+     */
+    private static class TestEmitter extends SseEmitter {
+
+        private final CountDownLatch stalled;
+        private final CountDownLatch delivered;
+        private final AtomicInteger sent = new AtomicInteger();
+        private volatile boolean failed;
+
+        TestEmitter(CountDownLatch stalled, CountDownLatch delivered) {
+            this.stalled = stalled;
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.incrementAndGet();
+            if (stalled != null) {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (delivered != null) {
+                delivered.countDown();
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed = true;
+        }
+    }
+}
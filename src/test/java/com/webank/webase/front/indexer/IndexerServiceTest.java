@@ -0,0 +1,215 @@
+/*
+ * Copyright 2014-2019  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.indexer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.indexer.entity.BlockHeader;
+import com.webank.webase.front.indexer.entity.IndexCheckpoint;
+import com.webank.webase.front.indexer.entity.TransIndex;
+import com.webank.webase.front.web3api.BlockHeightTracker;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.fisco.bcos.web3j.protocol.core.Request;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionObject;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosTransactionReceipt;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Transaction;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class IndexerServiceTest {
+
+    private static final String CONTRACT = "0x00000000000000000000000000000000000000AB";
+    private static final String DEPLOYED = "0x00000000000000000000000000000000000000CD";
+
+    private IndexerService indexerService;
+    private Constants constants;
+    private IndexCheckpointRepository checkpointRepository;
+    private IndexerStore indexerStore;
+
+    @Before
+    public void setUp() {
+        Web3j web3j = mock(Web3j.class);
+        doAnswer(invocation -> {
+            long number = ((DefaultBlockParameterNumber) invocation.getArguments()[0])
+                .getBlockNumber().longValue();
+            BcosBlock response = new BcosBlock();
+            response.setResult(block(number));
+            return request(response);
+        }).when(web3j).getBlockByNumber(any(DefaultBlockParameter.class), anyBoolean());
+        doAnswer(invocation -> {
+            TransactionReceipt receipt = new TransactionReceipt();
+            receipt.setTransactionHash((String) invocation.getArguments()[0]);
+            receipt.setContractAddress(DEPLOYED);
+            BcosTransactionReceipt response = new BcosTransactionReceipt();
+            response.setResult(receipt);
+            return request(response);
+        }).when(web3j).getTransactionReceipt(anyString());
+        BlockHeightTracker blockHeightTracker = mock(BlockHeightTracker.class);
+        when(blockHeightTracker.getHeight(1)).thenReturn(BigInteger.TEN);
+
+        constants = new Constants();
+        checkpointRepository = mock(IndexCheckpointRepository.class);
+        indexerStore = mock(IndexerStore.class);
+        indexerService = new IndexerService();
+        ReflectionTestUtils.setField(indexerService, "web3jMap",
+            Collections.singletonMap(1, web3j));
+        ReflectionTestUtils.setField(indexerService, "constants", constants);
+        ReflectionTestUtils.setField(indexerService, "blockHeightTracker", blockHeightTracker);
+        ReflectionTestUtils.setField(indexerService, "indexCheckpointRepository",
+            checkpointRepository);
+        ReflectionTestUtils.setField(indexerService, "indexerStore", indexerStore);
+    }
+
+    @Test
+    public void testToTransIndexOfCall() {
+        TransIndex transIndex = IndexerService.toTransIndex(1, block(3), 1,
+            transaction(3, 1, CONTRACT, "0xA9059CBB00000000"));
+        assertEquals(3, transIndex.getBlockNumber());
+        assertEquals(1, transIndex.getTransIndex());
+        assertEquals("0xfrom", transIndex.getFromAddress());
+        assertEquals(CONTRACT.toLowerCase(), transIndex.getToAddress());
+        assertEquals(CONTRACT.toLowerCase(), transIndex.getContractAddress());
+        assertEquals("0xa9059cbb", transIndex.getMethodId());
+    }
+
+    @Test
+    public void testToTransIndexOfDeploy() {
+        for (String to : new String[]{null, "", " ",
+            "0x0000000000000000000000000000000000000000"}) {
+            TransIndex transIndex = IndexerService.toTransIndex(1, block(3), 0,
+                transaction(3, 0, to, "0x6080604052"));
+            assertNull(transIndex.getToAddress());
+            assertNull(transIndex.getContractAddress());
+            assertNull(transIndex.getMethodId());
+            assertEquals("0xtx3_0", transIndex.getTransHash());
+        }
+    }
+
+    @Test
+    public void testSyncBatchResumesAfterCheckpoint() throws Exception {
+        constants.setIndexerBatchSize(3);
+        IndexCheckpoint checkpoint = new IndexCheckpoint();
+        checkpoint.setGroupId(1);
+        checkpoint.setBlockNumber(4L);
+        checkpoint.setBlockHash("0xhash4");
+        when(checkpointRepository.findOne(1)).thenReturn(checkpoint);
+
+        assertEquals(3, indexerService.syncBatch(1));
+        Saved saved = captureSave();
+        assertEquals(5, saved.headers.get(0).getBlockNumber());
+        assertEquals(7, saved.headers.get(2).getBlockNumber());
+        assertEquals(7, saved.checkpoint.getBlockNumber());
+        assertEquals("0xhash7", saved.checkpoint.getBlockHash());
+        // the first transaction of each block deploys a contract
+        assertEquals(6, saved.transList.size());
+        assertEquals(DEPLOYED.toLowerCase(), saved.transList.get(0).getContractAddress());
+        assertEquals(CONTRACT.toLowerCase(), saved.transList.get(1).getContractAddress());
+    }
+
+    @Test
+    public void testSyncBatchWithoutCheckpointStartsAtLatest() throws Exception {
+        assertEquals(1, indexerService.syncBatch(1));
+        Saved saved = captureSave();
+        assertEquals(10, saved.headers.get(0).getBlockNumber());
+        assertEquals(10, saved.checkpoint.getBlockNumber());
+
+        constants.setIndexerStartBlock(0);
+        constants.setIndexerBatchSize(2);
+        IndexCheckpoint checkpoint = new IndexCheckpoint();
+        checkpoint.setBlockNumber(10L);
+        when(checkpointRepository.findOne(1)).thenReturn(checkpoint);
+        assertEquals(0, indexerService.syncBatch(1));
+    }
+
+    @Test
+    public void testSyncBatchFromStartBlock() throws Exception {
+        constants.setIndexerStartBlock(0);
+        constants.setIndexerBatchSize(2);
+        assertEquals(2, indexerService.syncBatch(1));
+        assertEquals(1, captureSave().checkpoint.getBlockNumber());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Saved captureSave() {
+        ArgumentCaptor<List> headers = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> transList = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<IndexCheckpoint> checkpoint =
+            ArgumentCaptor.forClass(IndexCheckpoint.class);
+        verify(indexerStore).save(headers.capture(), transList.capture(), checkpoint.capture());
+        Saved saved = new Saved();
+        saved.headers = headers.getValue();
+        saved.transList = transList.getValue();
+        saved.checkpoint = checkpoint.getValue();
+        return saved;
+    }
+
+    private static class Saved {
+        private List<BlockHeader> headers;
+        private List<TransIndex> transList;
+        private IndexCheckpoint checkpoint;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Request request(Object response) {
+        Request request = mock(Request.class);
+        doAnswer(invocation -> CompletableFuture.completedFuture(response))
+            .when(request).sendAsync();
+        return request;
+    }
+
+    private static BcosBlock.Block block(long number) {
+        BcosBlock.Block block = new BcosBlock.Block();
+        block.setNumber("0x" + Long.toHexString(number));
+        block.setHash("0xhash" + number);
+        block.setParentHash("0xhash" + (number - 1));
+        block.setTimestamp("0x" + Long.toHexString(1500000000000L + number));
+        List<TransactionResult> transactions = new ArrayList<>();
+        transactions.add((TransactionObject) transaction(number, 0, null, "0x6080604052"));
+        transactions.add((TransactionObject) transaction(number, 1, CONTRACT, "0xa9059cbb"));
+        block.setTransactions(transactions);
+        return block;
+    }
+
+    private static Transaction transaction(long number, int index, String to, String input) {
+        TransactionObject transaction = new TransactionObject();
+        transaction.setHash("0xtx" + number + "_" + index);
+        transaction.setFrom("0xFROM");
+        transaction.setTo(to);
+        transaction.setInput(input);
+        return transaction;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.keystore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.exception.FrontException;
+import com.webank.webase.front.keystore.entity.EncodeInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+public class SignPipelineTest {
+
+    private SignStubServer server;
+    private SignPipeline pipeline;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new SignStubServer(0);
+        pipeline = new SignPipeline(pooledRestTemplate(8), server.getSignUrl(), 1000, 8);
+        pipeline.start();
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.stop();
+        server.stop();
+    }
+
+    @Test
+    public void testAllRequestsComplete() throws Exception {
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(pipeline.sign(encodeInfo(i, "0x" + i)));
+        }
+        for (CompletableFuture<String> future : futures) {
+            assertTrue(future.get(10, TimeUnit.SECONDS).startsWith("signed:"));
+        }
+        assertEquals(200, server.getRequestCount());
+    }
+
+    @Test
+    public void testFullPipelineRejects() throws Exception {
+        SignStubServer slowServer = new SignStubServer(500);
+        // one request in flight and two queued
+        SignPipeline slowPipeline = new SignPipeline(pooledRestTemplate(1),
+            slowServer.getSignUrl(), 2, 1);
+        slowPipeline.start();
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                futures.add(slowPipeline.sign(encodeInfo(i, "0x" + i)));
+            }
+            int signed = 0;
+            int rejected = 0;
+            for (CompletableFuture<String> future : futures) {
+                try {
+                    assertTrue(future.get(10, TimeUnit.SECONDS).startsWith("signed:"));
+                    signed++;
+                } catch (ExecutionException e) {
+                    assertEquals(ConstantCode.SIGN_QUEUE_FULL,
+                        ((FrontException) e.getCause()).getRetCode());
+                    rejected++;
+                }
+            }
+            assertTrue(signed >= 2 && signed <= 3);
+            assertEquals(10 - signed, rejected);
+            assertEquals(signed, slowServer.getRequestCount());
+        } finally {
+            slowPipeline.stop();
+            slowServer.stop();
+        }
+    }
+
+    public static RestTemplate pooledRestTemplate(int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager =
+            new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(
+            HttpClientBuilder.create().setConnectionManager(connectionManager).build()));
+    }
+
+    public static EncodeInfo encodeInfo(int userId, String data) {
+        EncodeInfo encodeInfo = new EncodeInfo();
+        encodeInfo.setUserId(userId);
+        encodeInfo.setEncodedDataStr(data);
+        return encodeInfo;
+    }
+}
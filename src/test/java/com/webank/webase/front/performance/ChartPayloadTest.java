@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.performance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.webase.front.performance.result.ChartBinaryConverter;
+import com.webank.webase.front.performance.result.LineDataList;
+import com.webank.webase.front.performance.result.PerformanceData;
+import com.webank.webase.front.timeseries.ChartLines;
+import com.webank.webase.front.timeseries.DataBlock;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.junit.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+public class ChartPayloadTest {
+
+    private static final String[] CHARTS = {"blockHeight", "cpu"};
+
+    private List<PerformanceData> charts() {
+        long[] timestamps = {1000, 6000, 11000};
+        double[][] lines = {{1, 2, Double.NaN}, {12.5, Double.NaN, 0.25}};
+        List<LineDataList> lineDataLists = ChartLines.downsample(timestamps, lines, 0);
+        return ChartLines.toPerformanceData(CHARTS, lineDataLists, ChartLines.empty(CHARTS.length));
+    }
+
+    @Test
+    public void testJson() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(charts());
+        assertEquals("[{\"metricType\":\"blockHeight\",\"data\":{\"lineDataList\":"
+                + "{\"timestampList\":[1000,6000,11000],\"valueList\":[1,2,null]},"
+                + "\"contrastDataList\":{\"timestampList\":[],\"valueList\":[]}}},"
+                + "{\"metricType\":\"cpu\",\"data\":{\"lineDataList\":"
+                + "{\"timestampList\":null,\"valueList\":[12.5,null,0.25]},"
+                + "\"contrastDataList\":{\"timestampList\":null,\"valueList\":[]}}}]", json);
+    }
+
+    @Test
+    public void testBinary() throws Exception {
+        ChartBinaryConverter converter = new ChartBinaryConverter();
+        Type type = new ParameterizedTypeReference<List<PerformanceData>>() {}.getType();
+        assertTrue(converter.canWrite(type, List.class, MediaType.APPLICATION_OCTET_STREAM));
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(charts(), type, MediaType.APPLICATION_OCTET_STREAM, message);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(message.getBodyAsBytes()));
+        assertEquals(CHARTS.length, in.readInt());
+        assertEquals("blockHeight", in.readUTF());
+        assertEquals("cpu", in.readUTF());
+
+        DataBlock block = DataBlock.readFrom(in);
+        long[] timestamps = new long[block.getSize()];
+        double[][] values = new double[block.getColumns()][block.getSize()];
+        block.decode(timestamps, values);
+        assertEquals(11000, timestamps[2]);
+        assertEquals(2, values[0][1], 0);
+        assertTrue(Double.isNaN(values[1][1]));
+        assertEquals(0, DataBlock.readFrom(in).getSize());
+    }
+}
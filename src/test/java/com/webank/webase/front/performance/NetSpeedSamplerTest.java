@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.performance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class NetSpeedSamplerTest {
+
+    @Test
+    public void testSpeedFromLastCounters() {
+        NetSpeedSampler sampler = new NetSpeedSampler(null);
+        assertNull(sampler.update("eth0", 1000, 2000, 10000));
+
+        NetSpeedSampler.Speed speed = sampler.update("eth0", 1000 + 5 * 2048, 2000 + 5 * 1024, 15000);
+        assertEquals(2, speed.getRxbps());
+        assertEquals(1, speed.getTxbps());
+
+        // counters reset, e.g. the interface is recreated
+        assertNull(sampler.update("eth0", 10, 10, 20000));
+        assertEquals(0, sampler.update("eth0", 10, 10, 25000).getRxbps());
+    }
+}
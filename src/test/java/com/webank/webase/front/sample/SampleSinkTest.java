@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.sample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.webank.webase.front.base.properties.Constants;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class SampleSinkTest {
+
+    /**
+     * keeps sizes of batches, blocks the writer until released.
+     */
+    private static class RecordingStore extends SampleStore {
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        final CountDownLatch release;
+
+        RecordingStore(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void save(List<Object> samples) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchSizes.add(samples.size());
+        }
+    }
+
+    private SampleSink newSink(SampleStore store, int queueSize, int batchSize) {
+        Constants constants = new Constants();
+        constants.setSampleQueueSize(queueSize);
+        constants.setSampleBatchSize(batchSize);
+        constants.setSampleFlushInterval(100);
+        SampleSink sink = new SampleSink();
+        ReflectionTestUtils.setField(sink, "constants", constants);
+        ReflectionTestUtils.setField(sink, "sampleStore", store);
+        sink.init();
+        return sink;
+    }
+
+    @Test
+    public void testBatchBySizeAndInterval() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingStore store = new RecordingStore(release);
+        SampleSink sink = newSink(store, 100, 10);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(sink.offer(i));
+        }
+        release.countDown();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (sum(store.batchSizes) < 25 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        sink.stop();
+
+        assertEquals(25, sum(store.batchSizes));
+        for (int size : store.batchSizes) {
+            assertTrue(size <= 10);
+        }
+        assertEquals(25L, sink.getMetrics().get("writtenSamples"));
+    }
+
+    @Test
+    public void testOverflowAndStop() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingStore store = new RecordingStore(release);
+        SampleSink sink = newSink(store, 5, 100);
+        // the writer closes a batch of the first sample after flush interval and waits in save,
+        // so the queue fills up
+        List<Boolean> accepted = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            accepted.add(sink.offer(i));
+            Thread.sleep(i == 0 ? 300 : 0);
+        }
+        assertFalse(accepted.get(accepted.size() - 1));
+        long overflow = (Long) sink.getMetrics().get("overflowSamples");
+        assertTrue(overflow > 0);
+
+        release.countDown();
+        sink.stop();
+        assertEquals(20 - overflow, sum(store.batchSizes));
+    }
+
+    private static int sum(List<Integer> sizes) {
+        int sum = 0;
+        for (int size : sizes) {
+            sum += size;
+        }
+        return sum;
+    }
+}
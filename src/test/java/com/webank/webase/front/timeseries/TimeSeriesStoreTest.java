@@ -0,0 +1,197 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.timeseries;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.performance.result.LineDataList;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TimeSeriesStoreTest {
+
+    private static final long START = 1500000000000L;
+    private static final long INTERVAL = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TimeSeriesStore newStore(File directory) throws Exception {
+        Constants constants = new Constants();
+        constants.setTimeSeriesPath(directory.getPath());
+        TimeSeriesStore store = new TimeSeriesStore();
+        ReflectionTestUtils.setField(store, "constants", constants);
+        store.init();
+        return store;
+    }
+
+    @Test
+    public void testBlockRoundTrip() {
+        int size = 100;
+        long[] timestamps = new long[size];
+        double[][] values = new double[2][size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = START + i * INTERVAL + (i % 3);
+            values[0][i] = Math.sin(i) * 100;
+            values[1][i] = 1000000 + i;
+        }
+        DataBlock block = DataBlock.encode(timestamps, values, size);
+        assertTrue(block.getEncodedSize() < size * 8 * 3);
+
+        long[] decodedTimestamps = new long[size];
+        double[][] decodedValues = new double[2][size];
+        block.decode(decodedTimestamps, decodedValues);
+        for (int i = 0; i < size; i++) {
+            assertEquals(timestamps[i], decodedTimestamps[i]);
+            assertEquals(values[0][i], decodedValues[0][i], 0);
+            assertEquals(values[1][i], decodedValues[1][i], 0);
+        }
+    }
+
+    @Test
+    public void testQueryPicksRollup() throws Exception {
+        TimeSeriesStore store = newStore(folder.newFolder());
+        // two hours of samples, value is the minute
+        int count = 2 * 720;
+        for (int i = 0; i < count; i++) {
+            store.append("test.value", START + i * INTERVAL, (i * INTERVAL) / 60000);
+        }
+        long end = START + (count - 1) * INTERVAL;
+
+        SeriesRange raw = store.query("test.value", START, end, INTERVAL);
+        assertEquals(Resolution.RAW, raw.getResolution());
+        assertEquals(count, raw.size());
+
+        SeriesRange tenMinutes = store.query("test.value", START, end, 10 * 60 * 1000L);
+        assertEquals(Resolution.TEN_MINUTES, tenMinutes.getResolution());
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += (i * INTERVAL) / 60000;
+        }
+        double weighted = 0;
+        SeriesRange minute = store.query("test.value", START - START % 60000, end, 60000);
+        for (int i = 0; i < minute.size(); i++) {
+            if (!Double.isNaN(minute.getAvg()[i])) {
+                weighted += minute.getAvg()[i] * 12;
+            }
+        }
+        assertEquals(total, weighted, 1e-6);
+    }
+
+    @Test
+    public void testReloadAfterFlush() throws Exception {
+        File directory = folder.newFolder();
+        TimeSeriesStore store = newStore(directory);
+        for (int i = 0; i < 1000; i++) {
+            store.append("test.reload", START + i * INTERVAL, i);
+        }
+        store.flush();
+
+        TimeSeriesStore reloaded = newStore(directory);
+        SeriesRange range = reloaded.query("test.reload", START, START + 999 * INTERVAL, INTERVAL);
+        assertEquals(1000, range.size());
+        assertEquals(999, range.getAvg()[999], 0);
+        // samples not after the last one are ignored
+        reloaded.append("test.reload", START, 1);
+        assertEquals(0, reloaded.query("test.reload", START, START, INTERVAL).getAvg()[0], 0);
+    }
+
+    @Test
+    public void testReloadOpenBlocksAfterSnapshot() throws Exception {
+        File directory = folder.newFolder();
+        TimeSeriesStore store = newStore(directory);
+        // less than a raw block, the last minute is pending
+        for (int i = 0; i < 100; i++) {
+            store.append("test.tail", START + i * INTERVAL, i);
+        }
+        store.snapshot();
+
+        // exit without flush
+        TimeSeriesStore reloaded = newStore(directory);
+        long end = START + 99 * INTERVAL;
+        SeriesRange raw = reloaded.query("test.tail", START, end, INTERVAL);
+        assertEquals(99, raw.getAvg()[99], 0);
+        SeriesRange before = store.query("test.tail", START, end, 60000);
+        SeriesRange after = reloaded.query("test.tail", START, end, 60000);
+        assertEquals(Resolution.MINUTE, after.getResolution());
+        for (int i = 0; i < after.size(); i++) {
+            assertEquals(before.getAvg()[i], after.getAvg()[i], 1e-9);
+        }
+        // the pending minute goes on with new samples
+        reloaded.append("test.tail", end + INTERVAL, 100);
+        assertEquals(0, reloaded.query("test.tail", START, START, INTERVAL).getAvg()[0], 0);
+        reloaded.flush();
+        assertEquals(0, directory.listFiles((dir, name) -> name.endsWith(".tail")).length);
+        SeriesRange flushed = newStore(directory).query("test.tail", START, end + INTERVAL,
+            INTERVAL);
+        assertEquals(100, flushed.getAvg()[100], 0);
+    }
+
+    @Test
+    public void testQueryLinesBeforeStoreReadsDatabase() throws Exception {
+        TimeSeriesStore store = newStore(folder.newFolder());
+        List<String> names = Arrays.asList("test.a", "test.b");
+        long[] steps = new long[1];
+        List<LineDataList> lines = store.queryLines(names, START, START + 2 * INTERVAL, INTERVAL,
+            (from, to, step) -> {
+                steps[0] = step;
+                return Collections.singletonList(new Object[]{START + INTERVAL, 1.5, null});
+            });
+        assertEquals(INTERVAL, steps[0]);
+        assertEquals(2, lines.size());
+        assertEquals(3, lines.get(0).getTimestamps().length);
+        assertTrue(Double.isNaN(lines.get(0).getValues()[0]));
+        assertEquals(1.5, lines.get(0).getValues()[1], 0);
+        assertTrue(Double.isNaN(lines.get(1).getValues()[1]));
+
+        assertEquals(0, store.queryLines(names, null, START, INTERVAL, (from, to, step) -> {
+            throw new AssertionError("no query without range");
+        }).get(1).getValues().length);
+    }
+
+    @Test
+    public void testLttbKeepsEdgesAndSpike() {
+        int size = 1000;
+        long[] timestamps = new long[size];
+        double[][] lines = new double[2][size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = START + i * INTERVAL;
+            lines[0][i] = i % 2;
+            lines[1][i] = Double.NaN;
+        }
+        lines[0][517] = 100;
+
+        int[] indexes = Lttb.select(timestamps, lines, 50);
+        assertEquals(50, indexes.length);
+        assertEquals(0, indexes[0]);
+        assertEquals(size - 1, indexes[indexes.length - 1]);
+        boolean spike = false;
+        for (int i = 0; i < indexes.length; i++) {
+            assertTrue(i == 0 || indexes[i] > indexes[i - 1]);
+            spike |= indexes[i] == 517;
+        }
+        assertTrue(spike);
+        assertEquals(size, Lttb.select(timestamps, lines, 0).length);
+    }
+}
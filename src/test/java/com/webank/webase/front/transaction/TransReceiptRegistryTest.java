@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.transaction;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.webank.webase.front.base.properties.Constants;
+import java.util.Arrays;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TransReceiptRegistryTest {
+
+    private TransReceiptRegistry newRegistry(String... hosts) {
+        Constants constants = new Constants();
+        constants.setCallbackHosts(Arrays.asList(hosts));
+        TransReceiptRegistry registry = new TransReceiptRegistry();
+        ReflectionTestUtils.setField(registry, "constants", constants);
+        return registry;
+    }
+
+    @Test
+    public void testCallbackAllowed() {
+        TransReceiptRegistry registry = newRegistry("notify.example.com", "127.0.0.1:8081");
+        assertTrue(registry.isCallbackAllowed("https://notify.example.com/receipt"));
+        assertTrue(registry.isCallbackAllowed("http://NOTIFY.example.com:9000/receipt"));
+        assertTrue(registry.isCallbackAllowed("http://127.0.0.1:8081/receipt"));
+
+        assertFalse(registry.isCallbackAllowed("http://127.0.0.1:8080/WeBASE-Sign/sign"));
+        assertFalse(registry.isCallbackAllowed("ftp://notify.example.com/receipt"));
+        assertFalse(registry.isCallbackAllowed("http://user@notify.example.com/receipt"));
+        assertFalse(registry.isCallbackAllowed("http://notify.example.com.evil.com/"));
+        assertFalse(registry.isCallbackAllowed("not a url"));
+    }
+
+    @Test
+    public void testNoCallbackByDefault() {
+        TransReceiptRegistry registry = newRegistry();
+        assertFalse(registry.isCallbackAllowed("http://127.0.0.1:8081/receipt"));
+    }
+}
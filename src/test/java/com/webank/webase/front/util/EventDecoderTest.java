@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.fisco.bcos.web3j.abi.EventEncoder;
+import org.fisco.bcos.web3j.abi.FunctionEncoder;
+import org.fisco.bcos.web3j.abi.TypeEncoder;
+import org.fisco.bcos.web3j.abi.datatypes.Address;
+import org.fisco.bcos.web3j.abi.datatypes.Utf8String;
+import org.fisco.bcos.web3j.abi.datatypes.generated.Uint256;
+import org.fisco.bcos.web3j.crypto.Hash;
+import org.fisco.bcos.web3j.protocol.core.methods.response.Log;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.Test;
+
+public class EventDecoderTest {
+
+    private static final String ABI = "[{\"anonymous\":false,\"inputs\":["
+        + "{\"indexed\":true,\"name\":\"from\",\"type\":\"address\"},"
+        + "{\"indexed\":false,\"name\":\"value\",\"type\":\"uint256\"},"
+        + "{\"indexed\":true,\"name\":\"tag\",\"type\":\"string\"},"
+        + "{\"indexed\":false,\"name\":\"memo\",\"type\":\"string\"}],"
+        + "\"name\":\"Transfer\",\"type\":\"event\"},"
+        + "{\"anonymous\":false,\"inputs\":[{\"indexed\":false,\"name\":\"n\",\"type\":\"uint256\"}],"
+        + "\"name\":\"Count\",\"type\":\"event\"}]";
+    private static final String FROM = "0x1f9aa3ad9a1d5c0b3e6a8b0f6b0e1f7e8c9a0b1c";
+
+    @Test
+    public void testDecodeIndexedAndNonIndexed() throws Exception {
+        String topic0 = EventEncoder.buildEventSignature("Transfer(address,uint256,string,string)");
+        EventDecoder decoder = AbiUtil.getParsedAbi(ABI).getEventDecoder(topic0.toUpperCase());
+        assertNotNull(decoder);
+        assertEquals("Transfer", decoder.getName());
+
+        String tagHash = Hash.sha3String("tag");
+        Log log = new Log();
+        log.setTopics(Arrays.asList(topic0, "0x" + TypeEncoder.encode(new Address(FROM)), tagHash));
+        log.setData(FunctionEncoder.encodeConstructor(
+            Arrays.asList(new Uint256(BigInteger.valueOf(7)), new Utf8String("hi"))));
+
+        List<Object> values = decoder.decode(log);
+        assertEquals(4, values.size());
+        assertEquals(FROM, values.get(0));
+        assertEquals(7, ((Number) values.get(1)).intValue());
+        assertEquals(tagHash, values.get(2));
+        assertEquals("hi", values.get(3));
+    }
+
+    @Test
+    public void testOtherEventNotDecoded() throws Exception {
+        ParsedAbi parsedAbi = AbiUtil.getParsedAbi(ABI);
+        assertEquals(2, parsedAbi.getEventDecoders().size());
+        EventDecoder decoder = parsedAbi.getEventDecoder(
+            EventEncoder.buildEventSignature("Count(uint256)"));
+
+        Log log = new Log();
+        log.setTopics(Arrays.asList(
+            EventEncoder.buildEventSignature("Transfer(address,uint256,string,string)")));
+        log.setData(FunctionEncoder.encodeConstructor(
+            Arrays.asList(new Uint256(BigInteger.ONE))));
+        assertNull(decoder.decode(log));
+    }
+
+    @Test
+    public void testReceiptParseAllOccurrences() throws Exception {
+        List<Log> logs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Log log = new Log();
+            log.setTopics(Arrays.asList(EventEncoder.buildEventSignature("Count(uint256)")));
+            log.setData(FunctionEncoder.encodeConstructor(
+                Arrays.asList(new Uint256(BigInteger.valueOf(i)))));
+            logs.add(log);
+        }
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setLogs(logs);
+
+        Map<String, List<List<Object>>> result =
+            AbiUtil.receiptParse(receipt, AbiUtil.getParsedAbi(ABI));
+        assertEquals(1, result.size());
+        assertEquals(3, result.get("Count").size());
+        assertEquals(2, ((Number) result.get("Count").get(2).get(0)).intValue());
+    }
+}
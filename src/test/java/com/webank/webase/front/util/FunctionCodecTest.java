@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import org.fisco.bcos.web3j.abi.FunctionEncoder;
+import org.fisco.bcos.web3j.abi.FunctionReturnDecoder;
+import org.fisco.bcos.web3j.abi.TypeReference;
+import org.fisco.bcos.web3j.abi.datatypes.Function;
+import org.fisco.bcos.web3j.abi.datatypes.Type;
+import org.junit.Test;
+
+public class FunctionCodecTest {
+
+    private static final List<String> INPUT_TYPES = Arrays.asList("uint256", "address", "bool",
+        "string", "bytes32", "bytes", "int8[]", "address[]");
+    private static final List<Object> PARAMS = Arrays.asList("12345",
+        "0x1f9aa3ad9a1d5c0b3e6a8b0f6b0e1f7e8c9a0b1c", true, "hello", "abc", "dynamic",
+        "1,-2,3", "0x1f9aa3ad9a1d5c0b3e6a8b0f6b0e1f7e8c9a0b1c,0x0000000000000000000000000000000000000001");
+
+    @Test
+    public void testEncodeSameAsInputFormat() throws Exception {
+        FunctionCodec codec = FunctionCodec.compile("test", INPUT_TYPES, Arrays.asList("uint256[]"));
+        List<Type> expected = AbiUtil.inputFormat(INPUT_TYPES, PARAMS);
+        List<TypeReference<?>> outputs = AbiUtil.outputFormat(Arrays.asList("uint256[]"));
+
+        assertEquals(FunctionEncoder.encode(new Function("test", expected, outputs)),
+            FunctionEncoder.encode(codec.buildFunction(PARAMS)));
+    }
+
+    @Test
+    public void testDecodeSameAsCallResultParse() throws Exception {
+        List<String> outputTypes = Arrays.asList("uint256", "string", "bytes32", "int8[]");
+        FunctionCodec codec = FunctionCodec.compile("test", outputTypes, outputTypes);
+        List<Object> values = Arrays.asList("42", "world", "xyz", "-1,2");
+        Function function = codec.buildFunction(values);
+        String encoded = FunctionEncoder.encodeConstructor(function.getInputParameters());
+        List<Type> typeList = FunctionReturnDecoder.decode(encoded, function.getOutputParameters());
+
+        assertEquals(AbiUtil.callResultParse(outputTypes, typeList), codec.decodeOutputs(typeList));
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2014-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.webank.webase.front.web3j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.web3api.BlockCache;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionObject;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class BlockCacheTest {
+
+    private BlockCache blockCache;
+    private Constants constants;
+
+    @Before
+    public void setUp() {
+        constants = new Constants();
+        constants.setBlockCacheSize(3);
+        blockCache = new BlockCache();
+        ReflectionTestUtils.setField(blockCache, "constants", constants);
+    }
+
+    @Test
+    public void testGetByNumberAndHash() {
+        BcosBlock.Block block = block(1, 2);
+        blockCache.put(1, block);
+        assertSame(block, blockCache.getByNumber(1, BigInteger.ONE));
+        assertSame(block, blockCache.getByHash(1, "0xHASH1"));
+        assertNull(blockCache.getByNumber(2, BigInteger.ONE));
+        assertEquals("0xtx1_1",
+            BlockCache.getTransaction(block, BigInteger.ONE).getHash());
+        assertNull(BlockCache.getTransaction(block, BigInteger.valueOf(2)));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        for (int i = 0; i < 3; i++) {
+            blockCache.put(1, block(i, 1));
+        }
+        blockCache.getByNumber(1, BigInteger.ZERO);
+        blockCache.put(1, block(3, 1));
+        assertNull(blockCache.getByNumber(1, BigInteger.ONE));
+        assertNull(blockCache.getByHash(1, "0xhash1"));
+        assertEquals(BigInteger.ZERO, blockCache.getByNumber(1, BigInteger.ZERO).getNumber());
+    }
+
+    @Test
+    public void testEvictByBytes() {
+        constants.setBlockCacheBytes(10000);
+        blockCache.put(1, block(0, 4));
+        blockCache.put(1, block(1, 4));
+        assertNull(blockCache.getByNumber(1, BigInteger.ZERO));
+        assertEquals(BigInteger.ONE, blockCache.getByNumber(1, BigInteger.ONE).getNumber());
+    }
+
+    private static BcosBlock.Block block(long number, int transCount) {
+        BcosBlock.Block block = new BcosBlock.Block();
+        block.setNumber("0x" + Long.toHexString(number));
+        block.setHash("0xhash" + number);
+        List<TransactionResult> transactions = new ArrayList<>();
+        for (int i = 0; i < transCount; i++) {
+            TransactionObject transaction = new TransactionObject();
+            transaction.setHash("0xtx" + number + "_" + i);
+            transaction.setInput("0x");
+            transactions.add(transaction);
+        }
+        block.setTransactions(transactions);
+        return block;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014-2019  the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.webank.webase.front.web3j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.webase.front.base.code.ConstantCode;
+import com.webank.webase.front.base.properties.Constants;
+import com.webank.webase.front.web3api.BlockStreamService;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.fisco.bcos.web3j.protocol.Web3j;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameter;
+import org.fisco.bcos.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.fisco.bcos.web3j.protocol.core.Request;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionHash;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosBlock.TransactionResult;
+import org.fisco.bcos.web3j.protocol.core.methods.response.BcosTransactionReceipt;
+import org.fisco.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class BlockStreamServiceTest {
+
+    private static final int TRANS_PER_BLOCK = 3;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ScheduledExecutorService nodeExecutor;
+    private Web3j web3j;
+    private BlockStreamService blockStreamService;
+    private Constants constants;
+    // block number without block on node
+    private long missingBlock = -1;
+    private final AtomicInteger receiptsInFlight = new AtomicInteger();
+    private final AtomicInteger maxReceiptsInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        nodeExecutor = Executors.newScheduledThreadPool(4);
+        web3j = mock(Web3j.class);
+        doAnswer(invocation -> {
+            long number = ((DefaultBlockParameterNumber) invocation.getArguments()[0])
+                .getBlockNumber().longValue();
+            BcosBlock response = new BcosBlock();
+            if (number != missingBlock) {
+                response.setResult(block(number));
+            }
+            return request(CompletableFuture.completedFuture(response));
+        }).when(web3j).getBlockByNumber(any(DefaultBlockParameter.class), anyBoolean());
+        doAnswer(invocation -> {
+            String transHash = (String) invocation.getArguments()[0];
+            int inFlight = receiptsInFlight.incrementAndGet();
+            maxReceiptsInFlight.accumulateAndGet(inFlight, Math::max);
+            CompletableFuture<BcosTransactionReceipt> future = new CompletableFuture<>();
+            nodeExecutor.schedule(() -> {
+                TransactionReceipt receipt = new TransactionReceipt();
+                receipt.setTransactionHash(transHash);
+                BcosTransactionReceipt response = new BcosTransactionReceipt();
+                response.setResult(receipt);
+                receiptsInFlight.decrementAndGet();
+                future.complete(response);
+            }, 5, TimeUnit.MILLISECONDS);
+            return request(future);
+        }).when(web3j).getTransactionReceipt(anyString());
+
+        constants = new Constants();
+        blockStreamService = new BlockStreamService();
+        ReflectionTestUtils.setField(blockStreamService, "web3jMap",
+            Collections.singletonMap(1, web3j));
+        ReflectionTestUtils.setField(blockStreamService, "constants", constants);
+    }
+
+    @After
+    public void tearDown() {
+        nodeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testReceiptsInFlightAreBounded() throws Exception {
+        constants.setBlockStreamPrefetch(8);
+        constants.setBlockStreamMaxReceipts(2);
+        blockStreamService.init();
+
+        List<JsonNode> lines = stream(0, 9);
+        assertEquals(10, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode line = lines.get(i);
+            assertEquals(i, line.get("block").get("number").asLong());
+            JsonNode receipts = line.get("receipts");
+            assertEquals(TRANS_PER_BLOCK, receipts.size());
+            assertEquals("0xtx" + i + "_2", receipts.get(2).get("transactionHash").asText());
+        }
+        assertTrue(maxReceiptsInFlight.get() <= 2);
+    }
+
+    @Test
+    public void testMissingBlockWritesErrorLine() throws Exception {
+        blockStreamService.init();
+        missingBlock = 2;
+
+        List<JsonNode> lines = stream(0, 4);
+        assertEquals(3, lines.size());
+        assertEquals(1, lines.get(1).get("block").get("number").asLong());
+        assertEquals(ConstantCode.BLOCK_NOT_FOUND.getCode().intValue(),
+            lines.get(2).get("code").asInt());
+    }
+
+    private List<JsonNode> stream(long from, long to) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blockStreamService.streamBlocks(1, BigInteger.valueOf(from), BigInteger.valueOf(to),
+            false, true, out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Request request(CompletableFuture<?> future) {
+        Request request = mock(Request.class);
+        doAnswer(invocation -> future).when(request).sendAsync();
+        return request;
+    }
+
+    private static BcosBlock.Block block(long number) {
+        BcosBlock.Block block = new BcosBlock.Block();
+        block.setNumber("0x" + Long.toHexString(number));
+        block.setHash("0xhash" + number);
+        List<TransactionResult> transactions = new ArrayList<>();
+        for (int i = 0; i < TRANS_PER_BLOCK; i++) {
+            transactions.add(new TransactionHash("0xtx" + number + "_" + i));
+        }
+        block.setTransactions(transactions);
+        return block;
+    }
+}